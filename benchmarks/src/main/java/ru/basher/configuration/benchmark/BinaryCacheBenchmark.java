@@ -0,0 +1,68 @@
+package ru.basher.configuration.benchmark;
+
+import com.google.common.base.Charsets;
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup load of an unchanged file: {@link #parseYaml()} parses the YAML from scratch, while
+ * {@link #loadFromCache()} reads the binary cache written next to the file on an earlier load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class BinaryCacheBenchmark {
+
+    @Param({"medium", "large"})
+    public String size;
+
+    private Path directory;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("basher-cache-benchmark");
+        file = directory.resolve("config.yml").toFile();
+        Files.write(file.toPath(), YamlFixtures.forSize(size).getBytes(Charsets.UTF_8));
+
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        config.setBinaryCacheEnabled(true);
+        config.load(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File child : files) {
+                Files.deleteIfExists(child.toPath());
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public CommentFileConfiguration parseYaml() {
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        config.load(file);
+        return config;
+    }
+
+    @Benchmark
+    public CommentFileConfiguration loadFromCache() {
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        config.setBinaryCacheEnabled(true);
+        config.load(file);
+        return config;
+    }
+
+}
@@ -0,0 +1,96 @@
+package ru.basher.configuration.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contended reads and writes on one shared configuration: a plain configuration guarded by a global lock
+ * against concurrent section storage. Run with {@code -t 1}, {@code -t 4} and {@code -t max} to see how each scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentSectionBenchmark {
+
+    private static final int KEYS = 256;
+
+    @Param({"locked", "concurrent"})
+    public String storage;
+
+    private CommentFileConfiguration config;
+    private boolean locked;
+    private final Object lock = new Object();
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private String[] keys;
+        private int cursor;
+
+        @Setup
+        public void setup(ConcurrentSectionBenchmark benchmark) {
+            int id = benchmark.threadIds.getAndIncrement();
+            keys = new String[KEYS];
+            for (int i = 0; i < KEYS; i++) {
+                keys[i] = "toggles.group-" + (i % 8) + ".key-" + ((i * 31 + id * 7) % KEYS);
+            }
+        }
+
+        private String next() {
+            return keys[cursor++ & (KEYS - 1)];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        locked = storage.equals("locked");
+        config = new CommentFileConfiguration(!locked);
+        for (int i = 0; i < KEYS; i++) {
+            config.set("toggles.group-" + (i % 8) + ".key-" + i, i);
+        }
+    }
+
+    @Benchmark
+    public Object read(ThreadKeys keys) {
+        String key = keys.next();
+        if (locked) {
+            synchronized (lock) {
+                return config.get(key);
+            }
+        }
+        return config.get(key);
+    }
+
+    @Benchmark
+    public void write(ThreadKeys keys) {
+        String key = keys.next();
+        if (locked) {
+            synchronized (lock) {
+                config.set(key, keys.cursor);
+            }
+            return;
+        }
+        config.set(key, keys.cursor);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Object mixedRead(ThreadKeys keys) {
+        return read(keys);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite(ThreadKeys keys) {
+        write(keys);
+    }
+
+}
@@ -0,0 +1,61 @@
+package ru.basher.configuration.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.diff.ConfigDiff;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConfigDiff} between two separately loaded copies of the same document (every subtree has to be compared),
+ * with a few changed values, and against itself (skipped by reference).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DiffBenchmark {
+
+    @Param({"medium", "large"})
+    public String size;
+
+    private CommentFileConfiguration base;
+    private CommentFileConfiguration copy;
+    private CommentFileConfiguration changed;
+
+    @Setup
+    public void setup() {
+        String yaml = YamlFixtures.forSize(size);
+        base = load(yaml);
+        copy = load(yaml);
+        changed = load(yaml);
+        changed.set("section-1.key-0", -1);
+        changed.set("section-2.nested.spawn.world", "changed");
+        changed.remove("section-3.lore");
+    }
+
+    private static CommentFileConfiguration load(String yaml) {
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        config.load(new StringReader(yaml));
+        return config;
+    }
+
+    @Benchmark
+    public ConfigDiff identicalContent() {
+        return ConfigDiff.compute(base, copy);
+    }
+
+    @Benchmark
+    public ConfigDiff fewChanges() {
+        return ConfigDiff.compute(base, changed);
+    }
+
+    @Benchmark
+    public ConfigDiff sameReference() {
+        return ConfigDiff.compute(base, base);
+    }
+
+}
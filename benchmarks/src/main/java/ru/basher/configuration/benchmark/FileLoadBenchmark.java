@@ -0,0 +1,56 @@
+package ru.basher.configuration.benchmark;
+
+import com.google.common.base.Charsets;
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load of a file: {@link #loadFile()} goes through {@link CommentFileConfiguration#load(File)}, which reads the file
+ * into a reused buffer and decodes it in bulk, while {@link #loadStream()} feeds the parser through an
+ * {@link InputStreamReader} over a {@link FileInputStream}, as the file load used to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FileLoadBenchmark {
+
+    @Param({"medium", "large"})
+    public String size;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("basher-load-benchmark", ".yml");
+        Files.write(file.toPath(), YamlFixtures.forSize(size).getBytes(Charsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public CommentFileConfiguration loadFile() {
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        config.load(file);
+        return config;
+    }
+
+    @Benchmark
+    public CommentFileConfiguration loadStream() throws IOException {
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), Charsets.UTF_8)) {
+            config.load(reader);
+        }
+        return config;
+    }
+
+}
@@ -0,0 +1,93 @@
+package ru.basher.configuration.benchmark;
+
+import com.google.common.base.Charsets;
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint of a plugin corpus of 200 shop files (~20 KB each) loaded with and without
+ * {@link CommentFileConfiguration#setInterning interning}. Each invocation loads the whole corpus and keeps it,
+ * and the {@code retainedBytes} counter reports the heap still used after a full GC, summed over the iterations.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class InterningBenchmark {
+
+    private static final int FILES = 200;
+    private static final int ITEMS = 60;
+
+    @Param({"false", "true"})
+    public boolean interning;
+
+    private Path directory;
+    private final List<File> files = new ArrayList<>();
+    private List<CommentFileConfiguration> loaded;
+    private long baseline;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytes;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("basher-interning-benchmark");
+        for (int i = 0; i < FILES; i++) {
+            File file = directory.resolve("category-" + i + ".yml").toFile();
+            Files.write(file.toPath(), YamlFixtures.pluginFile(i, ITEMS).getBytes(Charsets.UTF_8));
+            files.add(file);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void release() {
+        loaded = null;
+        baseline = usedHeap();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<CommentFileConfiguration> loadCorpus(Footprint footprint) {
+        List<CommentFileConfiguration> result = new ArrayList<>(FILES);
+        for (File file : files) {
+            CommentFileConfiguration config = new CommentFileConfiguration();
+            config.setInterning(interning);
+            config.load(file);
+            result.add(config);
+        }
+        loaded = result;
+        footprint.retainedBytes = usedHeap() - baseline;
+        return result;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+}
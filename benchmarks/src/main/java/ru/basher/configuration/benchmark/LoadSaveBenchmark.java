@@ -0,0 +1,93 @@
+package ru.basher.configuration.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link CommentFileConfiguration#load(java.io.Reader)} and {@link CommentFileConfiguration#saveToString()}
+ * on generated documents: small (~1 KB), medium (~150 KB) and large (~10 MB).
+ * <p>
+ * {@link #composeNodeGraph()} only composes the SnakeYAML node graph of the document, which the loader used to build
+ * and keep in memory in full before copying it into sections; {@link #load()} should beat it in time and allocation.
+ * {@link #lazyLoadOneSection()} only indexes the top-level entries and reads a single one of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LoadSaveBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private String yaml;
+    private CommentFileConfiguration loaded;
+
+    @Setup
+    public void setup() {
+        yaml = YamlFixtures.forSize(size);
+        loaded = YamlFixtures.configuration();
+        loaded.load(new StringReader(yaml));
+    }
+
+    @Benchmark
+    public CommentFileConfiguration load() {
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        config.load(new StringReader(yaml));
+        return config;
+    }
+
+    /**
+     * Lazy load that only reads one top-level section, as a server using a small part of a big file would.
+     */
+    @Benchmark
+    public Object lazyLoadOneSection() {
+        CommentFileConfiguration config = YamlFixtures.configuration();
+        config.setLazyLoading(true);
+        config.load(new StringReader(yaml));
+        return config.getConfigurationSection("section-1");
+    }
+
+    @Benchmark
+    public Object composeNodeGraph() {
+        return loaded.getYaml().compose(new StringReader(yaml));
+    }
+
+    @Benchmark
+    public String saveToString() {
+        return loaded.saveToString();
+    }
+
+    /**
+     * Streaming save into a writer that discards the text, so only the cost of producing it is measured.
+     */
+    @Benchmark
+    public void saveToWriter() {
+        loaded.save(DISCARD);
+    }
+
+    private static final Writer DISCARD = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+}
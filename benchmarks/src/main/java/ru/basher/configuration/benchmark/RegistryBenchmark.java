@@ -0,0 +1,70 @@
+package ru.basher.configuration.benchmark;
+
+import com.google.common.base.Charsets;
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.ConfigurationRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup load of a plugin directory with 40 medium (~150 KB) files: {@link #loadSerially()} loads them one after
+ * another, {@link #loadWithRegistry()} through a {@link ConfigurationRegistry} on the common fork-join pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RegistryBenchmark {
+
+    private static final int FILES = 40;
+
+    private Path directory;
+    private final List<File> files = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("basher-registry-benchmark");
+        byte[] content = YamlFixtures.forSize("medium").getBytes(Charsets.UTF_8);
+        for (int i = 0; i < FILES; i++) {
+            File file = directory.resolve("config-" + i + ".yml").toFile();
+            Files.write(file.toPath(), content);
+            files.add(file);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<CommentFileConfiguration> loadSerially() {
+        List<CommentFileConfiguration> result = new ArrayList<>(FILES);
+        for (File file : files) {
+            CommentFileConfiguration config = new CommentFileConfiguration();
+            config.load(file);
+            result.add(config);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Map<File, CommentFileConfiguration> loadWithRegistry() {
+        ConfigurationRegistry registry = new ConfigurationRegistry();
+        return ConfigurationRegistry.awaitAll(registry.loadDirectory(directory.toFile()));
+    }
+
+}
@@ -0,0 +1,55 @@
+package ru.basher.configuration.benchmark;
+
+import com.google.common.base.Charsets;
+import org.openjdk.jmh.annotations.*;
+import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.ResourceCache;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load of a bundled default that was loaded before: {@link #parse()} parses it again, while
+ * {@link #cachedCopy()} and {@link #cachedCopyReadAll()} take a copy from the {@link ResourceCache},
+ * reading a single or every top-level entry of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ResourceCacheBenchmark {
+
+    @Param({"small", "medium"})
+    public String size;
+
+    private String yaml;
+    private byte[] content;
+    private final ResourceCache cache = new ResourceCache(16, 64L << 20);
+
+    @Setup
+    public void setup() {
+        yaml = YamlFixtures.forSize(size);
+        content = yaml.getBytes(Charsets.UTF_8);
+        cache.load(content).getMap();
+    }
+
+    @Benchmark
+    public Object parse() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader(yaml));
+        return config.getConfigurationSection("section-1");
+    }
+
+    @Benchmark
+    public Object cachedCopy() {
+        return cache.load(content).getConfigurationSection("section-1");
+    }
+
+    @Benchmark
+    public Object cachedCopyReadAll() {
+        return cache.load(content).getMap();
+    }
+
+}
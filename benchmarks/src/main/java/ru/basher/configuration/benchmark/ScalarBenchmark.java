@@ -0,0 +1,78 @@
+package ru.basher.configuration.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.Scalars;
+import ru.basher.org.yaml.snakeyaml.nodes.NodeId;
+import ru.basher.org.yaml.snakeyaml.nodes.Tag;
+import ru.basher.org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar resolution on a number-heavy document (~2 MB, 1000 sections of 40 stats and a 40 element list).
+ * {@link #loadNumbers()} loads the whole document; {@link #parseScalars()} and {@link #resolveWithRegex()}
+ * only read its values, with {@link Scalars} and with SnakeYAML's regex based {@link Resolver} as loads used to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ScalarBenchmark {
+
+    private String yaml;
+    private String[] values;
+    private final Resolver resolver = new Resolver();
+
+    @Setup
+    public void setup() {
+        yaml = YamlFixtures.numbers(1_000, 40);
+        List<String> list = new ArrayList<>();
+        for (String line : yaml.split("\n")) {
+            int separator = line.indexOf(": ");
+            if (separator != -1) {
+                list.add(line.substring(separator + 2));
+            } else if (line.startsWith("  - ")) {
+                list.add(line.substring(4));
+            }
+        }
+        values = list.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public CommentFileConfiguration loadNumbers() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader(yaml));
+        return config;
+    }
+
+    @Benchmark
+    public void parseScalars(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(Scalars.parse(value));
+        }
+    }
+
+    @Benchmark
+    public void resolveWithRegex(Blackhole blackhole) {
+        for (String value : values) {
+            Tag tag = resolver.resolve(NodeId.scalar, value, true);
+            if (Tag.INT.equals(tag)) {
+                blackhole.consume(Integer.parseInt(value));
+            } else if (Tag.FLOAT.equals(tag)) {
+                blackhole.consume(Double.parseDouble(value));
+            } else if (Tag.BOOL.equals(tag)) {
+                blackhole.consume(Boolean.parseBoolean(value));
+            } else {
+                blackhole.consume(value);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+package ru.basher.configuration.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.basher.configuration.CommentConfigurationSection;
+import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.ConfigPath;
+import ru.basher.configuration.binding.Key;
+import ru.basher.configuration.list.PrimitiveLists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup and mutation costs of {@link ru.basher.configuration.CommentMemorySection}:
+ * shallow and deep dotted paths, wide sections, typed getters and large lists.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SectionBenchmark {
+
+    private static final String SHALLOW = "shallow";
+    private static final String DEEP = "arenas.main.spawn.location.world";
+    private static final String DEEP_INT = "arenas.main.spawn.location.y";
+    private static final ConfigPath DEEP_PATH = ConfigPath.of(DEEP);
+    private static final ConfigPath DEEP_INT_PATH = ConfigPath.of(DEEP_INT);
+    private static final String DEEP_MISS = "arenas.main.spawn.missing.world";
+    private static final int WIDE_KEYS = 1_000;
+    private static final int LIST_SIZE = 10_000;
+
+    @Param({"false", "true"})
+    public boolean pathIndex;
+
+    private CommentFileConfiguration config;
+    private CommentConfigurationSection snapshot;
+    private Bound bound;
+
+    public interface Bound {
+        @Key(DEEP_INT)
+        int y();
+    }
+    private String[] wideKeys;
+    private int wideCursor;
+
+    @Setup
+    public void setup() {
+        config = new CommentFileConfiguration();
+        config.set(SHALLOW, "value");
+        config.set(DEEP, "world_nether");
+        config.set(DEEP_INT, 64);
+
+        CommentConfigurationSection wide = config.createSection("wide");
+        wideKeys = new String[WIDE_KEYS];
+        for (int i = 0; i < WIDE_KEYS; i++) {
+            wideKeys[i] = "wide.key-" + i;
+            wide.set("key-" + i, i);
+        }
+
+        List<Object> ints = new ArrayList<>(LIST_SIZE);
+        List<Object> strings = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            ints.add(i);
+            strings.add("&7line " + i);
+        }
+        config.set("lists.ints", ints);
+        config.set("lists.strings", strings);
+        config.set("lists.packed", PrimitiveLists.compact(ints));
+        config.setPathIndexEnabled(pathIndex);
+        snapshot = config.snapshot();
+        bound = config.bind(Bound.class).get();
+    }
+
+    @Benchmark
+    public Object getShallow() {
+        return config.get(SHALLOW);
+    }
+
+    @Benchmark
+    public Object getDeep() {
+        return config.get(DEEP);
+    }
+
+    @Benchmark
+    public Object getDeepCompiled() {
+        return config.get(DEEP_PATH);
+    }
+
+    @Benchmark
+    public int getIntDeepCompiled() {
+        return config.getInt(DEEP_INT_PATH);
+    }
+
+    @Benchmark
+    public void setDeepCompiled() {
+        config.set(DEEP_PATH, "world_nether");
+    }
+
+    @Benchmark
+    public Object getDeepSnapshot() {
+        return snapshot.get(DEEP);
+    }
+
+    @Benchmark
+    public Object getDeepMiss() {
+        return config.get(DEEP_MISS, "default");
+    }
+
+    @Benchmark
+    public int getIntDeep() {
+        return config.getInt(DEEP_INT);
+    }
+
+    @Benchmark
+    public int getIntDeepBound() {
+        return bound.y();
+    }
+
+    @Benchmark
+    public String getStringDeep() {
+        return config.getString(DEEP);
+    }
+
+    @Benchmark
+    public Object getWide() {
+        String key = wideKeys[wideCursor++ % WIDE_KEYS];
+        return config.get(key);
+    }
+
+    @Benchmark
+    public void setShallow() {
+        config.set(SHALLOW, "value");
+    }
+
+    @Benchmark
+    public void setDeep() {
+        config.set(DEEP, "world_nether");
+    }
+
+    @Benchmark
+    public Object createSectionDeep() {
+        return config.createSection("created.a.b.c");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Integer> getIntegerListLarge() {
+        return config.getIntegerList("lists.ints");
+    }
+
+    @Benchmark
+    public int[] getIntArrayLarge() {
+        return config.getIntArray("lists.packed");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Integer> getIntegerListLargePacked() {
+        return config.getIntegerList("lists.packed");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Integer> getListLarge() {
+        return config.getList("lists.ints", Integer.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<String> getStringListLarge() {
+        return config.getStringList("lists.strings");
+    }
+
+    @Benchmark
+    public void getTypedMix(Blackhole blackhole) {
+        blackhole.consume(config.getInt(DEEP_INT));
+        blackhole.consume(config.getString(DEEP));
+        blackhole.consume(config.getBoolean("missing.flag", true));
+        blackhole.consume(config.getDouble(DEEP_INT));
+    }
+
+}
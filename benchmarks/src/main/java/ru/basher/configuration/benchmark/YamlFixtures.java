@@ -0,0 +1,153 @@
+package ru.basher.configuration.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import ru.basher.configuration.CommentFileConfiguration;
+
+/**
+ * Generates deterministic YAML documents that look like real plugin configs:
+ * commented sections, nested maps, scalars of every supported type and lists.
+ */
+public final class YamlFixtures {
+
+    private static final int CODE_POINT_LIMIT = 64 * 1024 * 1024;
+
+    private YamlFixtures() {
+    }
+
+    /**
+     * @param sections top-level sections to generate
+     * @param keysPerSection scalar keys inside each section
+     * @param listSize elements in the per-section lists
+     */
+    public static @NotNull String generate(int sections, int keysPerSection, int listSize) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("# generated benchmark config\n");
+        builder.append("version: 3\n");
+        for (int s = 0; s < sections; s++) {
+            builder.append("# section ").append(s).append('\n');
+            builder.append("section-").append(s).append(":\n");
+            builder.append("  enabled: ").append(s % 2 == 0).append('\n');
+            builder.append("  weight: ").append(s * 0.25).append('\n');
+            builder.append("  display-name: '&aSection ").append(s).append("'\n");
+            for (int k = 0; k < keysPerSection; k++) {
+                builder.append("  key-").append(k).append(": ").append(s * 31 + k).append('\n');
+            }
+            builder.append("  nested:\n");
+            builder.append("    spawn:\n");
+            builder.append("      world: 'world_").append(s).append("'\n");
+            builder.append("      x: ").append(s * 3.5).append('\n');
+            builder.append("      y: ").append(64 + s % 32).append('\n');
+            builder.append("  numbers:\n");
+            for (int i = 0; i < listSize; i++) {
+                builder.append("  - ").append(i * 7 + s).append('\n');
+            }
+            builder.append("  lore:\n");
+            for (int i = 0; i < listSize; i++) {
+                builder.append("  - '&7Line ").append(i).append(" of section ").append(s).append("'\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static final String[] MATERIALS = {"DIAMOND_SWORD", "IRON_PICKAXE", "GOLDEN_APPLE", "STONE", "OAK_LOG", "ARROW", "BREAD", "EMERALD"};
+    private static final String[] LORE = {"&7Right click to use", "&7Tier: &fcommon", "&7Tier: &9rare", "&8&m----------", "&eClick to buy!"};
+    private static final double[] PRICES = {10.0, 25.0, 50.0, 100.0, 250.0};
+
+    /**
+     * Generates one file of a plugin corpus, such as a shop or kit category. Files of a corpus use the same keys
+     * and draw materials, lore lines and numbers from small sets, the way real plugin configs repeat themselves.
+     *
+     * @param index file in the corpus, which varies the content
+     * @param items item sections in the file
+     */
+    public static @NotNull String pluginFile(int index, int items) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("# category ").append(index).append('\n');
+        builder.append("settings:\n");
+        builder.append("  enabled: true\n");
+        builder.append("  title: '&8Category ").append(index).append("'\n");
+        builder.append("  rows: ").append(3 + index % 4).append('\n');
+        builder.append("  permission: 'shop.category.").append(index).append("'\n");
+        builder.append("items:\n");
+        for (int i = 0; i < items; i++) {
+            int seed = index * 31 + i;
+            builder.append("  item-").append(i).append(":\n");
+            builder.append("    enabled: ").append(seed % 5 != 0).append('\n');
+            builder.append("    material: ").append(MATERIALS[seed % MATERIALS.length]).append('\n');
+            builder.append("    amount: ").append(1 << (seed % 7)).append('\n');
+            builder.append("    slot: ").append(i % 54).append('\n');
+            builder.append("    price: ").append(PRICES[seed % PRICES.length]).append('\n');
+            builder.append("    display-name: '&f").append(MATERIALS[seed % MATERIALS.length]).append(" #").append(i).append("'\n");
+            builder.append("    lore:\n");
+            for (int l = 0; l < 3; l++) {
+                builder.append("    - '").append(LORE[(seed + l) % LORE.length]).append("'\n");
+            }
+            builder.append("    commands:\n");
+            builder.append("    - 'give %player% ").append(MATERIALS[seed % MATERIALS.length].toLowerCase()).append("'\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Generates a number-heavy document, like stored statistics or balances: nearly every value is an int or a double,
+     * with a few booleans and numeric lists.
+     *
+     * @param sections top-level sections to generate
+     * @param keysPerSection numeric keys inside each section
+     */
+    public static @NotNull String numbers(int sections, int keysPerSection) {
+        StringBuilder builder = new StringBuilder();
+        for (int s = 0; s < sections; s++) {
+            builder.append("player-").append(s).append(":\n");
+            builder.append("  online: ").append(s % 3 == 0).append('\n');
+            for (int k = 0; k < keysPerSection; k++) {
+                int seed = s * 131 + k * 7;
+                builder.append("  stat-").append(k).append(": ");
+                switch (k % 4) {
+                    case 0:
+                        builder.append(seed % 100);
+                        break;
+                    case 1:
+                        builder.append(seed * 7919 - 1_000_000);
+                        break;
+                    case 2:
+                        builder.append(seed * 0.37);
+                        break;
+                    default:
+                        builder.append(-seed / 8.0);
+                        break;
+                }
+                builder.append('\n');
+            }
+            builder.append("  history:\n");
+            for (int i = 0; i < keysPerSection; i++) {
+                builder.append("  - ").append((s + i) * 1.5).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return an empty configuration that accepts documents of every fixture size; the large fixture (~10 MB)
+     * is over the 3 MB that SnakeYAML reads by default
+     */
+    public static @NotNull CommentFileConfiguration configuration() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.getLoaderOptions().setCodePointLimit(CODE_POINT_LIMIT);
+        return config;
+    }
+
+    public static @NotNull String forSize(@NotNull String size) {
+        switch (size) {
+            case "small":
+                return generate(4, 5, 5);
+            case "medium":
+                return generate(200, 10, 10);
+            case "large":
+                return generate(8_000, 20, 20);
+            default:
+                throw new IllegalArgumentException("Unknown fixture size: " + size);
+        }
+    }
+
+}
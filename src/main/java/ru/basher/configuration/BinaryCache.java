@@ -0,0 +1,342 @@
+package ru.basher.configuration;
+
+import com.google.common.base.Charsets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.list.BooleanList;
+import ru.basher.configuration.list.DoubleList;
+import ru.basher.configuration.list.IntList;
+import ru.basher.configuration.list.LongList;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of a parsed configuration, written next to its file so that later loads
+ * can skip parsing the YAML, see {@link CommentFileConfiguration#setBinaryCacheEnabled(boolean)}.
+ * <p>
+ * The header holds the size, modification time and SHA-256 hash of the file the tree was parsed from.
+ * The body is the tree in document order: each entry is its key, the comment lines above it and a tagged value.
+ * Every distinct string is written once and referenced by its index afterwards, which keeps repeated keys small
+ * and makes loaded sections share the same key instances.
+ */
+final class BinaryCache {
+
+    private static final int MAGIC = 0x42434643; // "BCFC"
+    private static final int VERSION = 2;
+
+    private static final byte SECTION = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte LIST = 7;
+    private static final byte INT_LIST = 8;
+    private static final byte LONG_LIST = 9;
+    private static final byte DOUBLE_LIST = 10;
+    private static final byte BOOLEAN_LIST = 11;
+    private static final byte BIG_INTEGER = 12;
+
+    private BinaryCache() {
+    }
+
+    /**
+     * @return the cache file of a configuration file
+     */
+    static @NotNull File cacheFile(@NotNull File file) {
+        File absolute = file.getAbsoluteFile();
+        return new File(absolute.getParentFile(), absolute.getName() + ".cache");
+    }
+
+    /**
+     * Identifies the file content a cache was written for.
+     */
+    static final class Header {
+
+        final long length;
+        final long lastModified;
+        final byte[] hash;
+
+        Header(long length, long lastModified, byte @NotNull [] hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        /**
+         * @return whether the file looks unchanged, going by its size and modification time
+         */
+        boolean matches(@NotNull File file) {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+
+        boolean matches(byte @NotNull [] contentHash) {
+            return Arrays.equals(hash, contentHash);
+        }
+
+    }
+
+    static void write(@NotNull DataOutputStream out, @NotNull Header header, @NotNull CommentConfigurationSection root) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(header.length);
+        out.writeLong(header.lastModified);
+        out.writeInt(header.hash.length);
+        out.write(header.hash);
+        new Encoder(out).writeSection(root);
+    }
+
+    /**
+     * @return the header, or null if the buffer does not hold a cache of this version
+     */
+    static @Nullable Header readHeader(@NotNull ByteBuffer in) {
+        if (in.remaining() < 28 || in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+        long length = in.getLong();
+        long lastModified = in.getLong();
+        int hashLength = in.getInt();
+        if (hashLength < 0 || hashLength > in.remaining()) return null;
+        byte[] hash = new byte[hashLength];
+        in.get(hash);
+        return new Header(length, lastModified, hash);
+    }
+
+    /**
+     * Reads the body that follows the header into an empty section.
+     *
+     * @param interner deduplicates the strings and numbers read, if not null
+     */
+    static void readBody(@NotNull ByteBuffer in, @NotNull CommentMemorySection root, @Nullable ScalarInterner interner) throws IOException {
+        new Decoder(in, interner).readSection(root);
+    }
+
+    private static final class Encoder {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Encoder(@NotNull DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writeSection(@NotNull CommentConfigurationSection section) throws IOException {
+            Map<String, Object> map = section.getMap();
+            out.writeInt(map.size());
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                writeString(entry.getKey());
+                List<String> comments = section.getComments(entry.getKey());
+                if (comments == null) {
+                    out.writeInt(0);
+                } else {
+                    out.writeInt(comments.size());
+                    for (String line : comments) {
+                        writeString(line);
+                    }
+                }
+                writeValue(entry.getValue());
+            }
+        }
+
+        private void writeValue(@NotNull Object value) throws IOException {
+            if (value instanceof CommentConfigurationSection) {
+                out.writeByte(SECTION);
+                writeSection((CommentConfigurationSection) value);
+            } else if (value instanceof String) {
+                out.writeByte(STRING);
+                writeString((String) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value instanceof BigInteger) {
+                out.writeByte(BIG_INTEGER);
+                writeString(value.toString());
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof IntList && ((IntList) value).isPacked()) {
+                IntList list = (IntList) value;
+                out.writeByte(INT_LIST);
+                out.writeInt(list.size());
+                for (int i = 0; i < list.size(); i++) out.writeInt(list.getInt(i));
+            } else if (value instanceof LongList && ((LongList) value).isPacked()) {
+                LongList list = (LongList) value;
+                out.writeByte(LONG_LIST);
+                out.writeInt(list.size());
+                for (int i = 0; i < list.size(); i++) out.writeLong(list.getLong(i));
+            } else if (value instanceof DoubleList && ((DoubleList) value).isPacked()) {
+                DoubleList list = (DoubleList) value;
+                out.writeByte(DOUBLE_LIST);
+                out.writeInt(list.size());
+                for (int i = 0; i < list.size(); i++) out.writeDouble(list.getDouble(i));
+            } else if (value instanceof BooleanList && ((BooleanList) value).isPacked()) {
+                BooleanList list = (BooleanList) value;
+                out.writeByte(BOOLEAN_LIST);
+                out.writeInt(list.size());
+                for (int i = 0; i < list.size(); i++) out.writeBoolean(list.getBoolean(i));
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    writeValue(element);
+                }
+            } else {
+                throw new IllegalArgumentException("Cannot cache value of " + value.getClass());
+            }
+        }
+
+        private void writeString(@NotNull String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index != null) {
+                out.writeInt(~index);
+                return;
+            }
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(Charsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+    }
+
+    /**
+     * Reads from a heap buffer holding the whole cache. Sizes are checked against what is left in it,
+     * so a damaged cache fails with an exception instead of allocating huge arrays.
+     */
+    private static final class Decoder {
+
+        private final ByteBuffer in;
+        private final @Nullable ScalarInterner interner;
+        private final List<String> strings = new ArrayList<>();
+
+        private Decoder(@NotNull ByteBuffer in, @Nullable ScalarInterner interner) {
+            this.in = in;
+            this.interner = interner;
+        }
+
+        private void readSection(@NotNull CommentMemorySection section) throws IOException {
+            for (int i = readSize(); i > 0; i--) {
+                String key = readString();
+                int lines = readSize();
+                if (lines > 0) {
+                    String[] comments = new String[lines];
+                    for (int j = 0; j < lines; j++) {
+                        comments[j] = readString();
+                    }
+                    section.putComments(key, Collections.unmodifiableList(Arrays.asList(comments)));
+                }
+
+                byte type = in.get();
+                if (type == SECTION) {
+                    readSection((CommentMemorySection) section.createEntry(key));
+                } else {
+                    section.putEntry(key, readValue(type));
+                }
+            }
+        }
+
+        private @NotNull Object readValue(byte type) throws IOException {
+            switch (type) {
+                case STRING:
+                    return readString();
+                case INT:
+                    return number(in.getInt());
+                case LONG:
+                    return number(in.getLong());
+                case DOUBLE:
+                    return number(in.getDouble());
+                case FLOAT:
+                    return number(in.getFloat());
+                case BIG_INTEGER:
+                    return new BigInteger(readString());
+                case BOOLEAN:
+                    return in.get() != 0;
+                case INT_LIST: {
+                    int[] elements = new int[readSize()];
+                    in.asIntBuffer().get(elements);
+                    skip(elements.length * 4);
+                    return IntList.wrap(elements);
+                }
+                case LONG_LIST: {
+                    long[] elements = new long[readSize()];
+                    in.asLongBuffer().get(elements);
+                    skip(elements.length * 8);
+                    return LongList.wrap(elements);
+                }
+                case DOUBLE_LIST: {
+                    double[] elements = new double[readSize()];
+                    in.asDoubleBuffer().get(elements);
+                    skip(elements.length * 8);
+                    return DoubleList.wrap(elements);
+                }
+                case BOOLEAN_LIST: {
+                    boolean[] elements = new boolean[readSize()];
+                    for (int i = 0; i < elements.length; i++) elements[i] = in.get() != 0;
+                    return BooleanList.wrap(elements);
+                }
+                case LIST: {
+                    int size = readSize();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(in.get()));
+                    }
+                    return list;
+                }
+                default:
+                    throw new IOException("Unknown value type " + type + " in configuration cache");
+            }
+        }
+
+        private @NotNull Object number(@NotNull Number value) {
+            return interner == null ? value : interner.scalar(value);
+        }
+
+        private int readSize() throws IOException {
+            int size = in.getInt();
+            if (size < 0 || size > in.remaining()) throw new IOException("Corrupt configuration cache");
+            return size;
+        }
+
+        private void skip(int bytes) {
+            ((Buffer) in).position(in.position() + bytes);
+        }
+
+        private @NotNull String readString() throws IOException {
+            int length = in.getInt();
+            if (length < 0) {
+                int index = ~length;
+                if (index >= strings.size()) throw new IOException("Corrupt configuration cache");
+                return strings.get(index);
+            }
+            if (length > in.remaining()) throw new IOException("Corrupt configuration cache");
+
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, Charsets.UTF_8);
+            skip(length);
+            if (interner != null) value = interner.string(value);
+            strings.add(value);
+            return value;
+        }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package ru.basher.configuration;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.list.IntList;
 
 import java.util.List;
 import java.util.Map;
@@ -13,6 +14,8 @@ public interface CommentConfigurationSection {
 
     boolean contains(@NotNull String section);
 
+    boolean contains(@NotNull ConfigPath section);
+
     default boolean contains(@NotNull String section, boolean ignoreDefault) {
         return contains(section);
     }
@@ -27,78 +30,235 @@ public interface CommentConfigurationSection {
 
     @Nullable Object get(@NotNull String section);
 
+    @Nullable Object get(@NotNull ConfigPath section);
+
     @Nullable Object get(@NotNull String section, @Nullable Object def);
 
+    @Nullable Object get(@NotNull ConfigPath section, @Nullable Object def);
+
     void set(@NotNull String section, @NotNull Object value);
 
+    void set(@NotNull ConfigPath section, @NotNull Object value);
+
     void remove(@NotNull String section);
 
+    void remove(@NotNull ConfigPath section);
+
+    /**
+     * Block comment written above a key of this section. The key is a single key, never split at dots.
+     * A comment belongs to its entry: it is kept when the value is replaced and removed together with it.
+     *
+     * @return read-only comment lines, each as it follows the {@code #}, or null if the key has no comment
+     */
+    @Nullable List<String> getComments(@NotNull String key);
+
+    /**
+     * Same as {@link #getComments(String)} for the entry at the path.
+     */
+    @Nullable List<String> getComments(@NotNull ConfigPath path);
+
+    /**
+     * Replaces the block comment above a key of this section, see {@link #getComments(String)}.
+     *
+     * @param lines comment lines, each written after a {@code #}; null or empty removes the comment
+     */
+    void setComments(@NotNull String key, @Nullable List<String> lines);
+
+    /**
+     * Same as {@link #setComments(String, List)} for the entry at the path, whose parent sections must exist.
+     */
+    void setComments(@NotNull ConfigPath path, @Nullable List<String> lines);
+
     @NotNull CommentConfigurationSection createSection(@NotNull String section);
 
+    @NotNull CommentConfigurationSection createSection(@NotNull ConfigPath section);
+
     @Nullable String getString(@NotNull String section);
 
+    @Nullable String getString(@NotNull ConfigPath section);
+
     @Contract("_, !null -> !null")
     @Nullable String getString(@NotNull String section, @Nullable String def);
 
+    @Contract("_, !null -> !null")
+    @Nullable String getString(@NotNull ConfigPath section, @Nullable String def);
+
     boolean isString(@NotNull String section);
 
+    boolean isString(@NotNull ConfigPath section);
+
     int getInt(@NotNull String section);
 
+    int getInt(@NotNull ConfigPath section);
+
     int getInt(@NotNull String section, int def);
 
+    int getInt(@NotNull ConfigPath section, int def);
+
     boolean isInt(@NotNull String section);
 
+    boolean isInt(@NotNull ConfigPath section);
+
     boolean getBoolean(@NotNull String section);
 
+    boolean getBoolean(@NotNull ConfigPath section);
+
     boolean getBoolean(@NotNull String section, boolean def);
 
+    boolean getBoolean(@NotNull ConfigPath section, boolean def);
+
     boolean isBoolean(@NotNull String section);
 
+    boolean isBoolean(@NotNull ConfigPath section);
+
     double getDouble(@NotNull String section);
 
+    double getDouble(@NotNull ConfigPath section);
+
     double getDouble(@NotNull String section, double def);
 
+    double getDouble(@NotNull ConfigPath section, double def);
+
     boolean isDouble(@NotNull String section);
 
+    boolean isDouble(@NotNull ConfigPath section);
+
     long getLong(@NotNull String section);
 
+    long getLong(@NotNull ConfigPath section);
+
     long getLong(@NotNull String section, long def);
 
+    long getLong(@NotNull ConfigPath section, long def);
+
     boolean isLong(@NotNull String section);
 
+    boolean isLong(@NotNull ConfigPath section);
+
+    /**
+     * Elements of the list at the path that are instances of the type.
+     * <p>
+     * The typed getters ({@code getList}, {@code getStringList}, {@code getIntegerList}, ...) return read-only views,
+     * and an empty read-only list when there is no list at the path. Unlike earlier versions they do not return
+     * fresh {@code ArrayList} copies, so modifying the result throws {@link UnsupportedOperationException};
+     * callers that edit the list have to copy it first, e.g. {@code new ArrayList<>(getStringList(path))},
+     * and {@link #set} the copy back to store it.
+     * <p>
+     * A view is built once per path and type and reused until the configuration is next modified through
+     * {@link #set} or {@link #remove}, on any section; changing a stored list in place is not detected until then.
+     */
     @Nullable <T> List<T> getList(@NotNull String section, @NotNull Class<T> type);
 
+    @Nullable <T> List<T> getList(@NotNull ConfigPath section, @NotNull Class<T> type);
+
     @Contract("_, _, !null -> !null")
     @Nullable <T> List<T> getList(@NotNull String section, @NotNull Class<T> type, @Nullable List<T> def);
 
+    @Contract("_, _, !null -> !null")
+    @Nullable <T> List<T> getList(@NotNull ConfigPath section, @NotNull Class<T> type, @Nullable List<T> def);
+
     boolean isList(@NotNull String section);
 
+    boolean isList(@NotNull ConfigPath section);
+
+    /**
+     * Read-only view of the strings in the list at the path, see {@link #getList(String, Class)}.
+     *
+     * @return the view, or an empty read-only list if there is no list at the path
+     */
     @NotNull List<String> getStringList(@NotNull String section);
 
+    @NotNull List<String> getStringList(@NotNull ConfigPath section);
+
     @NotNull List<Integer> getIntegerList(@NotNull String section);
 
+    @NotNull List<Integer> getIntegerList(@NotNull ConfigPath section);
+
     @NotNull List<Boolean> getBooleanList(@NotNull String section);
 
+    @NotNull List<Boolean> getBooleanList(@NotNull ConfigPath section);
+
     @NotNull List<Double> getDoubleList(@NotNull String section);
 
+    @NotNull List<Double> getDoubleList(@NotNull ConfigPath section);
+
     @NotNull List<Float> getFloatList(@NotNull String section);
 
+    @NotNull List<Float> getFloatList(@NotNull ConfigPath section);
+
     @NotNull List<Long> getLongList(@NotNull String section);
 
+    @NotNull List<Long> getLongList(@NotNull ConfigPath section);
+
     @NotNull List<Byte> getByteList(@NotNull String section);
 
+    @NotNull List<Byte> getByteList(@NotNull ConfigPath section);
+
     @NotNull List<Character> getCharacterList(@NotNull String section);
 
+    @NotNull List<Character> getCharacterList(@NotNull ConfigPath section);
+
     @NotNull List<Short> getShortList(@NotNull String section);
 
+    @NotNull List<Short> getShortList(@NotNull ConfigPath section);
+
+    /**
+     * Numeric list as an {@code int[]}. A list loaded as an {@link IntList} is returned without copying,
+     * so the array must not be modified. Other numeric lists are converted; non-numeric elements are skipped.
+     *
+     * @return the elements, or an empty array if there is no list at the path
+     */
+    int @NotNull [] getIntArray(@NotNull String section);
+
+    int @NotNull [] getIntArray(@NotNull ConfigPath section);
+
+    /**
+     * Same as {@link #getIntArray(String)} for a {@code long[]}, zero-copy for a {@link ru.basher.configuration.list.LongList}.
+     */
+    long @NotNull [] getLongArray(@NotNull String section);
+
+    long @NotNull [] getLongArray(@NotNull ConfigPath section);
+
+    /**
+     * Same as {@link #getIntArray(String)} for a {@code double[]}, zero-copy for a {@link ru.basher.configuration.list.DoubleList}.
+     */
+    double @NotNull [] getDoubleArray(@NotNull String section);
+
+    double @NotNull [] getDoubleArray(@NotNull ConfigPath section);
+
+    /**
+     * Same as {@link #getIntArray(String)} for a {@code boolean[]}, zero-copy for a {@link ru.basher.configuration.list.BooleanList}.
+     * Non-boolean elements are skipped.
+     */
+    boolean @NotNull [] getBooleanArray(@NotNull String section);
+
+    boolean @NotNull [] getBooleanArray(@NotNull ConfigPath section);
+
+    /**
+     * Numeric list as an {@link IntList}. The stored list itself is returned when it already is one,
+     * otherwise a converted copy.
+     */
+    @NotNull IntList getIntList(@NotNull String section);
+
+    @NotNull IntList getIntList(@NotNull ConfigPath section);
+
     <T> @Nullable T getObject(@NotNull String section, @NotNull Class<T> type);
 
+    <T> @Nullable T getObject(@NotNull ConfigPath section, @NotNull Class<T> type);
+
     @Contract("_, _, !null -> !null")
     <T> @Nullable T getObject(@NotNull String section, @NotNull Class<T> type, @Nullable T def);
 
+    @Contract("_, _, !null -> !null")
+    <T> @Nullable T getObject(@NotNull ConfigPath section, @NotNull Class<T> type, @Nullable T def);
+
 
     @Nullable CommentConfigurationSection getConfigurationSection(@NotNull String section);
 
+    @Nullable CommentConfigurationSection getConfigurationSection(@NotNull ConfigPath section);
+
     boolean isConfigurationSection(@NotNull String section);
 
+    boolean isConfigurationSection(@NotNull ConfigPath section);
+
 }
@@ -1,41 +1,96 @@
 package ru.basher.configuration;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.comments.CommentLine;
-import org.yaml.snakeyaml.comments.CommentType;
-import org.yaml.snakeyaml.composer.Composer;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
-import org.yaml.snakeyaml.nodes.*;
 import org.yaml.snakeyaml.parser.ParserImpl;
 import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.representer.Representer;
-import org.yaml.snakeyaml.resolver.Resolver;
+import ru.basher.configuration.list.PrimitiveLists;
+import ru.basher.configuration.metrics.ConfigurationMetrics;
+import ru.basher.configuration.metrics.Metrics;
 
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
 public class CommentFileConfiguration extends CommentMemorySection {
 
+    private static final AtomicLong TEMP_COUNTER = new AtomicLong();
+
     private final LoaderOptions loaderOptions = new LoaderOptions();
 
     private final Yaml yaml;
-    private final Map<String, List<String>> comments = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final DumperOptions dumperOptions = new DumperOptions();
+
+    /**
+     * Modification count at the last load or save, see {@link #isDirty()}.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile long savedModifications;
+    /**
+     * File the tree was last loaded from or saved to, replaced as a whole so background saves can publish it.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile @Nullable SyncState synced;
+    /**
+     * Whether loads index the top-level entries and only read each of them on first access, see {@link #setLazyLoading}.
+     */
+    private boolean lazyLoading;
+    /**
+     * Whether some top-level entries may still be {@link LazyEntry}s.
+     */
+    @Getter(AccessLevel.NONE)
+    private boolean lazyPending;
+    /**
+     * Whether {@link #load(File)} goes through a binary cache next to the file, see {@link #setBinaryCacheEnabled}.
+     */
+    private boolean binaryCacheEnabled;
+    /**
+     * Whether loads deduplicate keys and scalar values across configurations, see {@link #setInterning}.
+     */
+    private boolean interning;
+    /**
+     * Whether {@link #save(File)} syncs the content to disk before moving it into place, see {@link #setSyncOnSave}.
+     */
+    private boolean syncOnSave;
 
     public CommentFileConfiguration() {
-        super(null, "");
+        this(false);
+    }
+
+    /**
+     * @param concurrent whether sections should use {@link ConcurrentOrderedMap} storage, so that the tree
+     *                   can be read and written by many threads at once without external locking
+     */
+    public CommentFileConfiguration(boolean concurrent) {
+        super(null, "", concurrent ? new ConcurrentOrderedMap() : new LinkedHashMap<>());
         loaderOptions.setProcessComments(true);
 
-        DumperOptions dumperOptions = new DumperOptions();
         dumperOptions.setProcessComments(true);
         dumperOptions.setIndent(2);
         dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
@@ -48,187 +103,752 @@ public class CommentFileConfiguration extends CommentMemorySection {
         yaml = new Yaml(constructor, representer, dumperOptions, loaderOptions);
     }
 
-    public void load(@NotNull File file) {
-        try (InputStreamReader reader = new InputStreamReader(new FileInputStream(file), Charsets.UTF_8)) {
-            load(reader);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * Creates an empty configuration with the settings of this one: loader options, concurrent storage, path index,
+     * lazy loading, binary cache, interning and save syncing. Reloads parse the file into such a configuration,
+     * so that a file loads the same way as it did the first time.
+     */
+    public @NotNull CommentFileConfiguration newWithSameSettings() {
+        CommentFileConfiguration copy = new CommentFileConfiguration(isConcurrent());
+        LoaderOptions options = copy.loaderOptions;
+        options.setAllowDuplicateKeys(loaderOptions.isAllowDuplicateKeys());
+        options.setWarnOnDuplicateKeys(loaderOptions.isWarnOnDuplicateKeys());
+        options.setWrappedToRootException(loaderOptions.isWrappedToRootException());
+        options.setMaxAliasesForCollections(loaderOptions.getMaxAliasesForCollections());
+        options.setAllowRecursiveKeys(loaderOptions.getAllowRecursiveKeys());
+        options.setProcessComments(loaderOptions.isProcessComments());
+        options.setEnumCaseSensitive(loaderOptions.isEnumCaseSensitive());
+        options.setNestingDepthLimit(loaderOptions.getNestingDepthLimit());
+        options.setCodePointLimit(loaderOptions.getCodePointLimit());
+        options.setMergeOnCompose(loaderOptions.isMergeOnCompose());
+        options.setTagInspector(loaderOptions.getTagInspector());
+
+        if (isPathIndexEnabled()) copy.setPathIndexEnabled(true);
+        copy.lazyLoading = lazyLoading;
+        copy.binaryCacheEnabled = binaryCacheEnabled;
+        copy.interning = interning;
+        copy.syncOnSave = syncOnSave;
+        return copy;
     }
 
-    public void load(@NotNull Reader reader) {
-        comments.clear();
-        Composer composer = new Composer(
-                new ParserImpl(new StreamReader(reader), loaderOptions),
-                new Resolver(),
-                loaderOptions
-        );
-        Node node = composer.getSingleNode();
-        if (node instanceof MappingNode) {
-            readMapping((MappingNode) node, "", this);
+    /**
+     * Enables a flat full-path index on this configuration. Reads of any depth then cost a single hash probe,
+     * while every set, remove and createSection in the tree also updates the index.
+     * Leave it disabled for write-heavy configurations. Not available for concurrent configurations.
+     */
+    public void setPathIndexEnabled(boolean enabled) {
+        if (enabled && isConcurrent()) throw new IllegalStateException("Path index is not supported by concurrent configurations");
+        pathIndex = enabled ? PathIndex.build(this) : null;
+    }
+
+    public boolean isPathIndexEnabled() {
+        return pathIndex != null;
+    }
+
+    public boolean isConcurrent() {
+        return super.getMap() instanceof ConcurrentOrderedMap;
+    }
+
+    /**
+     * Enables lazy loading for big data-like files of which only a part is used.
+     * <p>
+     * A lazy load parses the document once to find where each top-level entry starts, keeping the source bytes
+     * and the comments of the top-level keys, and reads an entry into sections only when a lookup reaches it.
+     * Iterating over {@link #getMap()} reads every entry. Saving copies the entries that were never read
+     * from the source as they are, so untouched parts of the file keep their exact text.
+     * Documents with anchors, tags, a flow-style root or top-level keys with dots are loaded in full.
+     * <p>
+     * As lookups may read entries, a lazily loaded configuration must not be read from several threads at once.
+     * Not available for concurrent configurations, and loads are never lazy while the path index is enabled.
+     */
+    public void setLazyLoading(boolean enabled) {
+        if (enabled && isConcurrent()) throw new IllegalStateException("Lazy loading is not supported by concurrent configurations");
+        lazyLoading = enabled;
+    }
+
+    /**
+     * Enables the binary cache for fast startup. After {@link #load(File)} parses a file, the tree is also written
+     * in a compact binary form to {@code <file name>.cache} next to it, together with the size, modification time
+     * and hash of the file. Later loads of the same content read that cache instead of parsing the YAML;
+     * a file whose size or content changed is parsed again and its cache rewritten.
+     * Lazy loading takes precedence over the cache.
+     */
+    public void setBinaryCacheEnabled(boolean enabled) {
+        binaryCacheEnabled = enabled;
+    }
+
+    /**
+     * Makes loads share keys, short strings and boxed numbers with all other configurations that have interning
+     * enabled. Plugins that load many files with the same keys and common values keep a single instance of each,
+     * at the cost of a lookup per scalar while loading.
+     */
+    public void setInterning(boolean enabled) {
+        interning = enabled;
+    }
+
+    /**
+     * Makes {@link #save(File)} sync the written content to disk before it replaces the file, so a power loss
+     * right after the save cannot leave an empty file behind. Off by default as the sync dominates the cost
+     * of saving small files; {@link WriteBehindSaver} always syncs, off the calling thread.
+     */
+    public void setSyncOnSave(boolean enabled) {
+        syncOnSave = enabled;
+    }
+
+    private @Nullable ScalarInterner interner() {
+        return interning ? ScalarInterner.SHARED : null;
+    }
+
+    /**
+     * Reads every top-level entry that was not read yet.
+     */
+    @Override
+    public @NotNull Map<String, Object> getMap() {
+        Map<String, Object> map = super.getMap();
+        if (lazyPending) {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (entry.getValue() instanceof LazyEntry) entry.setValue(read(entry.getKey(), (LazyEntry) entry.getValue()));
+            }
+            lazyPending = false;
         }
+        return map;
     }
 
-    private void readMapping(@NotNull MappingNode node, @NotNull String path, @NotNull CommentConfigurationSection target) {
-        for (NodeTuple tuple : node.getValue()) {
-            ScalarNode keyNode = (ScalarNode) tuple.getKeyNode();
+    @Override
+    protected @Nullable Object getEntry(@NotNull String key) {
+        Object value = super.getEntry(key);
+        if (!(value instanceof LazyEntry)) return value;
+        Object read = read(key, (LazyEntry) value);
+        super.getMap().put(key, read);
+        return read;
+    }
 
-            String key = keyNode.getValue();
-            Node valueNode = tuple.getValueNode();
+    /**
+     * A lazy entry is written from the source together with its comments, so it is read before they change.
+     */
+    @Override
+    public void setComments(@NotNull String key, @Nullable List<String> lines) {
+        getEntry(key);
+        super.setComments(key, lines);
+    }
 
-            String fullPath = path.isEmpty() ? key : path + "." + key;
+    /**
+     * @return the top-level entries without reading lazy ones, or null if there are none
+     */
+    @Nullable Map<String, Object> lazyEntries() {
+        return lazyPending ? super.getMap() : null;
+    }
 
-            if (keyNode.getBlockComments() != null) {
-                List<String> comments = new ArrayList<>();
-                for (CommentLine c : keyNode.getBlockComments()) {
-                    comments.add(c.getValue());
-                }
-                this.comments.put(fullPath, comments);
+    /**
+     * Reading an entry only creates sections, which is not a modification of the configuration.
+     */
+    private @NotNull Object read(@NotNull String key, @NotNull LazyEntry entry) {
+        boolean clean = !isDirty();
+        Object value = entry.read(this, key, loaderOptions, interner());
+        if (clean) markSaved();
+        return value;
+    }
+
+    /**
+     * Creates a deeply immutable copy of this configuration that is safe to read from many threads.
+     * Use {@link SnapshotHolder} to publish new snapshots after a reload or mutation.
+     */
+    public @NotNull CommentConfigurationSection snapshot() {
+        return CommentSnapshotSection.of(this);
+    }
+
+    /**
+     * Replaces the values and comments of this configuration with a copy of another configuration,
+     * as if it had been loaded from the same source.
+     */
+    public void replaceWith(@NotNull CommentFileConfiguration source) {
+        boolean clean = !source.isDirty();
+        clearEntries();
+        Map<String, Object> lazy = source.lazyEntries();
+        if (lazy == null) {
+            copyEntries(source, this);
+        } else {
+            // lazy entries are immutable and can be shared, they are read again on first access
+            for (Map.Entry<String, Object> entry : lazy.entrySet()) {
+                copyEntry(source, this, entry.getKey(), entry.getValue());
             }
+            lazyPending = true;
+        }
 
-            if (valueNode instanceof MappingNode) {
-                CommentConfigurationSection section = target.createSection(key);
-                readMapping((MappingNode) valueNode, fullPath, section);
-            } else if (valueNode instanceof SequenceNode) {
-                List<Object> list = new ArrayList<>();
-                readSequence((SequenceNode) valueNode, list);
-                target.set(key, list);
-            } else if (valueNode instanceof ScalarNode) {
-                target.set(key, parseScalar((ScalarNode) valueNode));
+        if (clean) {
+            synced = source.synced;
+            markSaved();
+        }
+    }
+
+    /**
+     * Deeply copies the entries of one section into another, together with their comments.
+     */
+    static void copyEntries(@NotNull CommentConfigurationSection source, @NotNull CommentConfigurationSection target) {
+        for (Map.Entry<String, Object> entry : source.getMap().entrySet()) {
+            copyEntry(source, target, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static void copyEntry(@NotNull CommentConfigurationSection source, @NotNull CommentConfigurationSection target,
+                                  @NotNull String name, @NotNull Object value) {
+        ConfigPath key = ConfigPath.ofSegments(name);
+        if (value instanceof CommentConfigurationSection) {
+            copyEntries((CommentConfigurationSection) value, target.createSection(key));
+        } else if (value instanceof List) {
+            target.set(key, PrimitiveLists.mutableCopy((List<?>) value));
+        } else {
+            target.set(key, value);
+        }
+
+        List<String> lines = source.getComments(name);
+        if (lines == null || lines.isEmpty()) return;
+        if (source instanceof CommentMemorySection && target instanceof CommentMemorySection) {
+            // stored comment lists are read-only and can be shared
+            ((CommentMemorySection) target).putComments(name, lines);
+        } else {
+            target.setComments(name, lines);
+        }
+    }
+
+    /**
+     * Loads the file into this configuration, see {@link #load(Reader)}.
+     */
+    public void load(@NotNull File file) {
+        ConfigurationMetrics metrics = Metrics.current();
+        if (metrics == null) {
+            loadFile(file);
+            return;
+        }
+        long start = System.nanoTime();
+        loadFile(file);
+        measureLoad(metrics, file, System.nanoTime() - start, file.length());
+    }
+
+    private void loadFile(@NotNull File file) {
+        if (lazyLoading) {
+            byte[] source;
+            try {
+                source = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
+            if (load(source)) markSynced(file, newDigest().digest(source));
+            return;
+        }
+        if (binaryCacheEnabled && loadCache(file)) return;
+
+        MessageDigest digest = newDigest();
+        boolean[] exact = new boolean[1];
+        try {
+            FileContent.read(file, digest, reader -> exact[0] = loadEagerly(reader));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
+        // a file loaded over other entries neither matches the tree nor may be cached as its content
+        if (!exact[0]) return;
+        markSynced(file, digest.digest());
+        if (binaryCacheEnabled) writeCache(file);
     }
 
-    private void readSequence(@NotNull SequenceNode node, @NotNull List<Object> target) {
-        for (Node element : node.getValue()) {
-            if (element instanceof SequenceNode) {
-                List<Object> list = new ArrayList<>();
-                readSequence((SequenceNode) element, list);
-                target.add(list);
-            } else if (element instanceof ScalarNode) {
-                target.add(parseScalar((ScalarNode) element));
+    /**
+     * Replaces the content of this configuration with the binary cache of the file, if it was written for the current content.
+     * A file whose modification time changed but whose content did not is accepted, and its cache rewritten.
+     *
+     * @return false if there is no usable cache
+     */
+    private boolean loadCache(@NotNull File file) {
+        File cache = BinaryCache.cacheFile(file);
+        if (!cache.isFile()) return false;
+
+        boolean touched;
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(cache.toPath()));
+            BinaryCache.Header header = BinaryCache.readHeader(in);
+            if (header == null) return false;
+            touched = !header.matches(file);
+            if (touched && (file.length() != header.length || !header.matches(fileHash(file)))) return false;
+
+            boolean exact = loadContent(() -> {
+                try {
+                    BinaryCache.readBody(in, this, interner());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!exact) return true;
+            markSynced(file, header.hash);
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+        if (touched) writeCache(file);
+        return true;
+    }
+
+    /**
+     * Writes the binary cache of a tree that was just loaded from the file.
+     * A cache that cannot be written only costs the next load a parse.
+     */
+    private void writeCache(@NotNull File file) {
+        SyncState state = synced;
+        if (state == null) return;
+        try {
+            writeAtomically(BinaryCache.cacheFile(file), false, out -> {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+                BinaryCache.write(data, new BinaryCache.Header(state.length, state.lastModified, state.hash), this);
+                data.flush();
+            });
+        } catch (IOException | RuntimeException ignored) {
+            // parsed again next time
+        }
+    }
+
+    /**
+     * Loads the parsed document into this configuration. Each top-level key of the document replaces the entry
+     * under that key, while entries the document does not have are kept, so a file can be loaded over defaults;
+     * comments of the top-level keys are replaced by those of the document.
+     * Sections are built while the document is parsed, without an intermediate node graph,
+     * or on first access with {@link #setLazyLoading lazy loading}. If parsing fails the previous content is kept.
+     * <p>
+     * Only a load into an empty configuration leaves it clean and {@link #save(File) synced} with the file.
+     * Use {@link #replaceWith} to replace the whole content.
+     */
+    public void load(@NotNull Reader reader) {
+        ConfigurationMetrics metrics = Metrics.current();
+        if (metrics == null) {
+            loadReader(reader);
+            return;
+        }
+        long start = System.nanoTime();
+        loadReader(reader);
+        measureLoad(metrics, null, System.nanoTime() - start, -1);
+    }
+
+    private void loadReader(@NotNull Reader reader) {
+        if (lazyLoading) {
+            try {
+                load(CharStreams.toString(reader).getBytes(Charsets.UTF_8));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
+            return;
         }
+        loadEagerly(reader);
     }
 
-    private @NotNull Object parseScalar(@NotNull ScalarNode node) {
-        Tag tag = node.getTag();
-        String value = node.getValue();
+    /**
+     * Reports a load with the size of the loaded tree, without reading lazy entries.
+     */
+    private void measureLoad(@NotNull ConfigurationMetrics metrics, @Nullable File file, long nanos, long bytes) {
+        TreeCounter counter = new TreeCounter();
+        Map<String, Object> lazy = lazyEntries();
+        counter.count(this, lazy != null ? lazy : super.getMap());
+        metrics.loaded(file, nanos, bytes, counter.keys, counter.sections, counter.comments);
+    }
+
+    private boolean loadEagerly(@NotNull Reader reader) {
+        return loadContent(() -> new EventLoader(new ParserImpl(new StreamReader(reader), loaderOptions), loaderOptions, interner()).load(this));
+    }
 
-        if (Tag.INT.equals(tag)) {
-            return Integer.parseInt(value);
+    /**
+     * Runs the loader, which puts the top-level entries of a document over the current ones, see {@link #load(Reader)}.
+     * If the loader fails, the previous content is restored.
+     *
+     * @return whether the configuration was empty, so that it now holds exactly the document and is marked as saved
+     */
+    private boolean loadContent(@NotNull Runnable loader) {
+        boolean wasDirty = isDirty();
+        Map<String, Object> previous = new LinkedHashMap<>(super.getMap());
+        Map<String, List<String>> previousComments = clearComments(previous.keySet());
+        try {
+            loader.run();
+        } catch (RuntimeException e) {
+            clearEntries();
+            previous.forEach(this::putEntry);
+            previousComments.forEach(this::putComments);
+            if (!wasDirty) markSaved();
+            throw e;
         }
-        if (Tag.FLOAT.equals(tag)) {
-            return Double.parseDouble(value);
+        synced = null;
+        if (!previous.isEmpty()) return false;
+        lazyPending = false;
+        markSaved();
+        return true;
+    }
+
+    /**
+     * Removes the comments of the top-level keys.
+     *
+     * @return the removed comments by key
+     */
+    private @NotNull Map<String, List<String>> clearComments(@NotNull Collection<String> keys) {
+        Map<String, List<String>> removed = new HashMap<>();
+        for (String key : keys) {
+            List<String> lines = getComments(key);
+            if (lines == null) continue;
+            removed.put(key, lines);
+            putComments(key, null);
         }
-        if (Tag.BOOL.equals(tag)) {
-            return Boolean.parseBoolean(value);
+        return removed;
+    }
+
+    /**
+     * Loads a UTF-8 encoded document lazily, or in full if it cannot be split into its top-level entries.
+     *
+     * @return whether the configuration was empty, see {@link #loadContent}
+     */
+    private boolean load(byte @NotNull [] source) {
+        Map<String, LazyEntry> entries = pathIndex == null ? LazyIndexer.index(source, loaderOptions) : null;
+        if (entries == null) {
+            return loadEagerly(new InputStreamReader(new ByteArrayInputStream(source), Charsets.UTF_8));
         }
-        return value;
+
+        Map<String, Object> previous = super.getMap();
+        boolean exact = previous.isEmpty();
+        clearComments(new ArrayList<>(previous.keySet()));
+        for (Map.Entry<String, LazyEntry> entry : entries.entrySet()) {
+            putEntry(entry.getKey(), entry.getValue());
+            List<String> comments = entry.getValue().getComments();
+            if (comments != null) putComments(entry.getKey(), comments);
+        }
+        if (!entries.isEmpty()) lazyPending = true;
+        synced = null;
+        if (exact) markSaved();
+        return exact;
     }
 
+    /**
+     * Loads a UTF-8 encoded document as a template for {@link #replaceWith} copies, which may be made on any thread.
+     * The template itself must not be changed or read afterwards. Each top-level entry is parsed once,
+     * when a copy first reads it, and then copied into every copy that reads it.
+     */
+    void loadTemplate(byte @NotNull [] source) {
+        load(source);
+        if (!lazyPending) return;
+        for (Map.Entry<String, Object> entry : super.getMap().entrySet()) {
+            entry.setValue(((LazyEntry) entry.getValue()).shared());
+        }
+    }
 
+    /**
+     * Whether values or comments changed since the configuration was last loaded or saved.
+     */
+    public boolean isDirty() {
+        return getModificationCount() != savedModifications;
+    }
 
+    public void markDirty() {
+        markModified();
+    }
 
+    /**
+     * Writes the configuration to the file, skipping the write when nothing would change:
+     * when the tree is clean and the file is still the one it was loaded from or saved to,
+     * or when the serialized content hashes the same as the bytes already on disk.
+     * The content is written to a temporary file that is then moved over the target, so the file is never
+     * left truncated; the temporary file is synced to disk first only with {@link #setSyncOnSave}.
+     */
     public void save(@NotNull File file) {
+        saveIfChanged(file);
+    }
+
+    /**
+     * Same as {@link #save(File)}.
+     *
+     * @return whether the file was written
+     */
+    public boolean saveIfChanged(@NotNull File file) {
+        ConfigurationMetrics metrics = Metrics.current();
+        if (metrics == null) return saveFile(file);
+
+        long start = System.nanoTime();
+        boolean written = saveFile(file);
+        metrics.saved(file, System.nanoTime() - start, written ? file.length() : 0, written);
+        return written;
+    }
+
+    private boolean saveFile(@NotNull File file) {
         try {
-            String data = saveToString();
+            if (!needsSave(file)) return false;
 
-            try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), Charsets.UTF_8)) {
-                writer.write(data);
-            }
+            long modifications = getModificationCount();
+            return writeContent(file, captureContent(), modifications, syncOnSave);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * @return false if the tree is clean and the file is still the one it was last loaded from or saved to
+     */
+    boolean needsSave(@NotNull File file) {
+        SyncState state = synced;
+        return isDirty() || state == null || !state.matches(file);
+    }
+
+    /**
+     * Serializes the current content, which {@link #save(File)} hashes and writes as is
+     * and {@link #writeIfChanged} writes on another thread.
+     */
+    byte @NotNull [] captureContent() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        save(new OutputStreamWriter(out, Charsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes previously captured content unless the file already holds the same bytes, always syncing it to disk.
+     *
+     * @param modifications modification count the content was captured at
+     * @return whether the file was written
+     */
+    boolean writeIfChanged(@NotNull File file, byte @NotNull [] content, long modifications) throws IOException {
+        ConfigurationMetrics metrics = Metrics.current();
+        if (metrics == null) return writeContent(file, content, modifications, true);
+
+        long start = System.nanoTime();
+        boolean written = writeContent(file, content, modifications, true);
+        metrics.saved(file, System.nanoTime() - start, written ? content.length : 0, written);
+        return written;
+    }
+
+    private boolean writeContent(@NotNull File file, byte @NotNull [] content, long modifications, boolean force) throws IOException {
+        byte[] hash = newDigest().digest(content);
+        if (file.isFile() && Arrays.equals(hash, diskHash(file))) {
+            markSynced(file, hash, modifications);
+            return false;
+        }
+        writeAtomically(file, force, out -> out.write(content));
+        markSynced(file, hash, modifications);
+        return true;
+    }
+
+    /**
+     * Saves every dirty configuration to its file, skipping files whose content would not change.
+     *
+     * @return the number of files written
+     */
+    public static int saveAllDirty(@NotNull Map<File, ? extends CommentFileConfiguration> configs) {
+        int written = 0;
+        for (Map.Entry<File, ? extends CommentFileConfiguration> entry : configs.entrySet()) {
+            CommentFileConfiguration config = entry.getValue();
+            if (config.needsSave(entry.getKey()) && config.saveIfChanged(entry.getKey())) written++;
+        }
+        return written;
+    }
+
+    /**
+     * Writes this configuration to the writer as it is produced, without building the document in memory first.
+     * The writer is flushed but not closed.
+     */
+    public void save(@NotNull Writer writer) {
+        try {
+            new EventWriter(writer, dumperOptions).write(this);
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Comments of the whole tree by the full path of the commented entry, as a live view
+     * over {@link #getComments(String)} of each section. Listing it walks the whole tree.
+     *
+     * @deprecated use {@link #getComments(String)} and {@link #setComments(String, List)} of the owning section
+     */
+    @Deprecated
+    public @NotNull Map<String, List<String>> getComments() {
+        return new CommentPathView();
+    }
+
     public @NotNull String saveToString() {
-        MappingNode root = writeMapping(this, "");
         StringWriter writer = new StringWriter();
+        save(writer);
+        return writer.toString();
+    }
 
-        yaml.serialize(root, writer);
-        String serialized = writer.toString();
+    private void markSaved() {
+        savedModifications = getModificationCount();
+    }
 
-        if (serialized.equalsIgnoreCase("{}\n")) serialized = "";
-        return serialized;
+    private void markSynced(@NotNull File file, byte @NotNull [] hash) {
+        markSynced(file, hash, getModificationCount());
     }
 
-    private MappingNode writeMapping(@NotNull CommentConfigurationSection source, @NotNull String path) {
-        List<NodeTuple> tuples = new ArrayList<>();
+    private void markSynced(@NotNull File file, byte @NotNull [] hash, long modifications) {
+        synced = new SyncState(file, hash);
+        savedModifications = modifications;
+    }
 
-        for (Map.Entry<String, Object> entry : source.getMap().entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
+    /**
+     * @return hash of the file content, read from disk unless the file is unchanged since it was last synced
+     */
+    private byte @NotNull [] diskHash(@NotNull File file) throws IOException {
+        SyncState state = synced;
+        return state != null && state.matches(file) ? state.hash : fileHash(file);
+    }
+
+    /**
+     * Writes the file through a temporary file in the same directory, which is atomically moved over the target.
+     *
+     * @param force whether the content is synced to disk before the move
+     */
+    private static void writeAtomically(@NotNull File file, boolean force, @NotNull ContentWriter writer) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + "." + TEMP_COUNTER.incrementAndGet() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                writer.write(out);
+                out.flush();
+                if (force) channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-            String fullPath = path.isEmpty() ? key : path + "." + key;
+    private static byte @NotNull [] fileHash(@NotNull File file) throws IOException {
+        MessageDigest digest = newDigest();
+        FileContent.digest(file, digest);
+        return digest.digest();
+    }
 
-            ScalarNode keyNode = new ScalarNode(
-                    Tag.STR, key, null, null, DumperOptions.ScalarStyle.PLAIN
-            );
+    private static @NotNull MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-            List<String> keyComments = comments.get(fullPath);
-            if (keyComments != null) {
-                List<CommentLine> block = new ArrayList<>();
-                for (String c : keyComments) {
-                    block.add(new CommentLine(null, null, c, CommentType.BLOCK));
+    private static final class TreeCounter {
+
+        private int keys;
+        private int sections;
+        private int comments;
+
+        private void count(@NotNull CommentConfigurationSection section, @NotNull Map<String, Object> entries) {
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                keys++;
+                List<String> lines = section.getComments(entry.getKey());
+                if (lines != null) comments += lines.size();
+                if (entry.getValue() instanceof CommentConfigurationSection) {
+                    CommentConfigurationSection child = (CommentConfigurationSection) entry.getValue();
+                    sections++;
+                    count(child, child.getMap());
                 }
-                keyNode.setBlockComments(block);
             }
+        }
 
-            Node valueNode;
-            if (value instanceof CommentConfigurationSection) {
-                valueNode = writeMapping((CommentConfigurationSection) value, fullPath);
-            } else if (value instanceof List<?>) {
-                List<Node> nodes = new ArrayList<>();
-                for (Object element : (List<?>) value) {
-                    nodes.add(writeValueNode(element));
-                }
-                valueNode = new SequenceNode(Tag.SEQ, nodes, DumperOptions.FlowStyle.BLOCK);
-            } else {
-                valueNode = writeValueNode(value);
-            }
+    }
+
+    private interface ContentWriter {
+
+        void write(@NotNull OutputStream out) throws IOException;
+
+    }
+
+    private static final class SyncState {
+
+        private final File file;
+        private final long length;
+        private final long lastModified;
+        private final byte[] hash;
+
+        private SyncState(@NotNull File file, byte @NotNull [] hash) {
+            this.file = file;
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+            this.hash = hash;
+        }
 
-            tuples.add(new NodeTuple(keyNode, valueNode));
+        private boolean matches(@NotNull File other) {
+            return file.equals(other) && other.length() == length && other.lastModified() == lastModified;
         }
 
-        return new MappingNode(Tag.MAP, tuples, DumperOptions.FlowStyle.BLOCK);
     }
 
-    private @NotNull Node writeValueNode(@NotNull Object value) {
-        if (value instanceof List<?>) {
-            List<Node> nodes = new ArrayList<>();
-            for (Object element : (List<?>) value) {
-                nodes.add(writeValueNode(element));
-            }
-            return new SequenceNode(Tag.SEQ, nodes, DumperOptions.FlowStyle.BLOCK);
+    /**
+     * Full-path view over the comments stored in the sections of this tree.
+     */
+    private final class CommentPathView extends AbstractMap<String, List<String>> {
+
+        @Override
+        public List<String> get(Object path) {
+            if (!(path instanceof String)) return null;
+            String key = key((String) path);
+            CommentConfigurationSection section = owner((String) path);
+            return section == null ? null : section.getComments(key);
         }
 
-        Tag tag;
-        DumperOptions.ScalarStyle style;
-        if (value instanceof Integer || value instanceof Long) {
-            tag = Tag.INT;
-            style = DumperOptions.ScalarStyle.PLAIN;
+        @Override
+        public boolean containsKey(Object path) {
+            return get(path) != null;
+        }
 
-        } else if (value instanceof Double || value instanceof Float) {
-            tag = Tag.FLOAT;
-            style = DumperOptions.ScalarStyle.PLAIN;
+        @Override
+        public List<String> put(@NotNull String path, @NotNull List<String> lines) {
+            CommentConfigurationSection section = owner(path);
+            if (section == null) throw new IllegalArgumentException("no section holds " + path);
+            String key = key(path);
+            List<String> old = section.getComments(key);
+            section.setComments(key, lines);
+            return old;
+        }
 
-        } else if (value instanceof Boolean) {
-            tag = Tag.BOOL;
-            style = DumperOptions.ScalarStyle.PLAIN;
+        @Override
+        public List<String> remove(Object path) {
+            List<String> old = get(path);
+            if (old != null) owner((String) path).setComments(key((String) path), null);
+            return old;
+        }
 
-        } else {
-            tag = Tag.STR;
-            style = DumperOptions.ScalarStyle.SINGLE_QUOTED;
+        @Override
+        public void clear() {
+            clear(CommentFileConfiguration.this);
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, List<String>>> entrySet() {
+            Map<String, List<String>> all = new LinkedHashMap<>();
+            collect(CommentFileConfiguration.this, all);
+            return Collections.unmodifiableMap(all).entrySet();
+        }
+
+        private @Nullable CommentConfigurationSection owner(@NotNull String path) {
+            int separator = path.lastIndexOf(PATH_SEPARATOR);
+            return separator == -1 ? CommentFileConfiguration.this : getConfigurationSection(path.substring(0, separator));
+        }
+
+        private @NotNull String key(@NotNull String path) {
+            return path.substring(path.lastIndexOf(PATH_SEPARATOR) + 1);
+        }
+
+        private void collect(@NotNull CommentConfigurationSection section, @NotNull Map<String, List<String>> all) {
+            for (Map.Entry<String, Object> entry : section.getMap().entrySet()) {
+                List<String> lines = section.getComments(entry.getKey());
+                if (lines != null) all.put(PathIndex.childPath(section.getCurrentPath(), entry.getKey()), lines);
+                if (entry.getValue() instanceof CommentConfigurationSection) {
+                    collect((CommentConfigurationSection) entry.getValue(), all);
+                }
+            }
+        }
+
+        private void clear(@NotNull CommentConfigurationSection section) {
+            for (Map.Entry<String, Object> entry : section.getMap().entrySet()) {
+                section.setComments(entry.getKey(), null);
+                if (entry.getValue() instanceof CommentConfigurationSection) {
+                    clear((CommentConfigurationSection) entry.getValue());
+                }
+            }
         }
 
-        return new ScalarNode(
-                tag,
-                String.valueOf(value),
-                null,
-                null,
-                style
-        );
     }
 
 }
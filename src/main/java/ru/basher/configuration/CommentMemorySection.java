@@ -1,22 +1,66 @@
 package ru.basher.configuration;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.binding.Binding;
+import ru.basher.configuration.list.BooleanList;
+import ru.basher.configuration.list.DoubleList;
+import ru.basher.configuration.list.IntList;
+import ru.basher.configuration.list.LongList;
+import ru.basher.configuration.list.PrimitiveLists;
+import ru.basher.configuration.metrics.ConfigurationMetrics;
+import ru.basher.configuration.metrics.Metrics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 @Getter
 public class CommentMemorySection implements CommentConfigurationSection {
 
     public static final char PATH_SEPARATOR = '.';
 
+    private static final AtomicLongFieldUpdater<CommentMemorySection> MODIFICATIONS =
+            AtomicLongFieldUpdater.newUpdater(CommentMemorySection.class, "modifications");
+
     private final @Nullable CommentConfigurationSection parent;
     private final String name;
     private final Map<String, Object> map;
+    private final CommentConfigurationSection root;
+    private final String currentPath;
+
+    /**
+     * Full-path index, only ever set on the root section.
+     */
+    @Getter(AccessLevel.NONE)
+    @Nullable PathIndex pathIndex;
+
+    /**
+     * Mutation counter of the whole tree, only ever incremented on the root section.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile long modifications;
+
+    /**
+     * Typed list views by the path they were requested with, see {@link #getList(String, Class, List)}.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile @Nullable Map<String, ListView> listViews;
+
+    /**
+     * Block comment lines above the keys of this section, created with the first comment.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile @Nullable Map<String, List<String>> comments;
 
     public CommentMemorySection(@Nullable CommentConfigurationSection parent, String name) {
         this(parent, name, new LinkedHashMap<>());
@@ -26,6 +70,8 @@ public class CommentMemorySection implements CommentConfigurationSection {
         this.parent = parent;
         this.name = name;
         this.map = map;
+        this.root = parent == null ? this : parent.getRoot();
+        this.currentPath = parent == null ? "" : PathIndex.childPath(parent.getCurrentPath(), name);
     }
 
     @Override
@@ -34,129 +80,340 @@ public class CommentMemorySection implements CommentConfigurationSection {
     }
 
     @Override
-    public boolean contains(@NotNull String section, boolean ignoreDefault) {
-        return contains(section);
+    public boolean contains(@NotNull ConfigPath section) {
+        return get(section) != null;
     }
 
     @Override
-    public @NotNull String getCurrentPath() {
-        StringBuilder path = new StringBuilder();
-        CommentConfigurationSection parent;
-        boolean first = true;
-        while ((parent = getParent()) != null) {
-            if (!first) {
-                path.insert(0, parent.getName() + ".");
-            } else {
-                path.append(parent.getName());
-                first = false;
-            }
-        }
-        return path.toString();
+    public boolean contains(@NotNull String section, boolean ignoreDefault) {
+        return contains(section);
     }
 
     @Override
-    public @NotNull CommentConfigurationSection getRoot() {
-        CommentConfigurationSection parent = getParent();
-        if (parent == null) {
-            return this;
-        } else {
-            return parent.getRoot();
-        }
+    public @Nullable Object get(@NotNull String path) {
+        return get(path, null);
     }
 
     @Override
-    public @Nullable Object get(@NotNull String path) {
+    public @Nullable Object get(@NotNull ConfigPath path) {
         return get(path, null);
     }
 
     @Override
     public @Nullable Object get(@NotNull String path, @Nullable Object def) {
-        if(path.isEmpty()) return this;
-        CommentConfigurationSection section = this;
-        int i = -1;
-        int b;
-        while ((i = path.indexOf(PATH_SEPARATOR, b = i + 1)) != -1) {
-            String node = path.substring(b, i);
-            section = section.getConfigurationSection(node);
-            if (section == null) {
-                return def;
-            }
+        if (path.isEmpty()) return this;
+        Object result;
+        PathIndex index = pathIndex;
+        if (index != null) {
+            result = index.get(path);
+        } else if (path.indexOf(PATH_SEPARATOR) == -1) {
+            result = getEntry(path);
+        } else {
+            return get(ConfigPath.cached(path), def);
+        }
+
+        ConfigurationMetrics metrics = Metrics.current();
+        if (metrics != null) metrics.lookup(result != null, index == null ? 1 : depth(path));
+        return result == null ? def : result;
+    }
+
+    private static int depth(@NotNull String path) {
+        int depth = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == PATH_SEPARATOR) depth++;
         }
+        return depth;
+    }
 
-        String key = path.substring(b);
-        if (section == this) {
-            Object result = map.get(key);
-            return result == null ? def : result;
+    @Override
+    public @Nullable Object get(@NotNull ConfigPath path, @Nullable Object def) {
+        if (path.isEmpty()) return this;
+        Object result;
+        // the index is keyed by dotted strings, which do not tell a key with a dot from a nested one
+        PathIndex index = path.hasDottedSegment() ? null : pathIndex;
+        if (index != null) {
+            result = index.get(path.toString());
         } else {
-            return section.get(key, def);
+            CommentConfigurationSection section = walk(path);
+            result = section == null ? null : entry(section, path.last());
         }
+
+        ConfigurationMetrics metrics = Metrics.current();
+        if (metrics != null) metrics.lookup(result != null, path.size());
+        return result == null ? def : result;
     }
 
     @Override
     public void set(@NotNull String path, @NotNull Object value) {
-        CommentConfigurationSection section = this;
-        int i = -1;
-        int b;
-        while ((i = path.indexOf(PATH_SEPARATOR, b = i + 1)) != -1) {
-            String node = path.substring(b, i);
-            CommentConfigurationSection subSection = section.getConfigurationSection(node);
-            if (subSection == null) {
-                section = section.createSection(node);
-            } else {
-                section = subSection;
-            }
+        if (path.indexOf(PATH_SEPARATOR) == -1) {
+            putEntry(path, value);
+        } else {
+            set(ConfigPath.cached(path), value);
         }
+    }
 
-        String key = path.substring(b);
-        if (section == this) {
-            map.put(key, value);
+    @Override
+    public void set(@NotNull ConfigPath path, @NotNull Object value) {
+        if (path.isEmpty()) throw new IllegalArgumentException("path is empty");
+        CommentConfigurationSection section = walkOrCreate(path);
+        if (section instanceof CommentMemorySection) {
+            ((CommentMemorySection) section).putEntry(path.last(), value);
         } else {
-            section.set(key, value);
+            section.set(ConfigPath.ofSegments(path.last()), value);
         }
     }
 
     @Override
     public void remove(@NotNull String path) {
-        if(path.indexOf(PATH_SEPARATOR) != -1) {
-            CommentConfigurationSection section = this;
-            int i = -1;
-            int b;
-            while ((i = path.indexOf(PATH_SEPARATOR, b = i + 1)) != -1) {
-                String node = path.substring(b, i);
-                CommentConfigurationSection subSection = section.getConfigurationSection(node);
-                if (subSection == null) break;
-                section = subSection;
-            }
-            if(section == this) return;
-            section.getParent().remove(section.getName());
+        if (path.indexOf(PATH_SEPARATOR) == -1) {
+            removeEntry(path);
+        } else {
+            remove(ConfigPath.cached(path));
+        }
+    }
+
+    @Override
+    public void remove(@NotNull ConfigPath path) {
+        if (path.isEmpty()) return;
+        CommentConfigurationSection section = walk(path);
+        if (section == null) return;
+
+        if (section instanceof CommentMemorySection) {
+            ((CommentMemorySection) section).removeEntry(path.last());
         } else {
-            map.remove(path);
+            section.remove(ConfigPath.ofSegments(path.last()));
         }
     }
 
     @Override
     public @NotNull CommentConfigurationSection createSection(@NotNull String path) {
-        CommentConfigurationSection section = this;
-        int i = -1;
-        int b;
-        while((i = path.indexOf(PATH_SEPARATOR, b = i + 1)) != -1) {
-            String node = path.substring(b, i);
-            CommentConfigurationSection subSection = section.getConfigurationSection(node);
-            if (subSection == null) {
-                section = section.createSection(node);
+        if (path.indexOf(PATH_SEPARATOR) == -1) {
+            return createEntry(path);
+        }
+        return createSection(ConfigPath.cached(path));
+    }
+
+    @Override
+    public @NotNull CommentConfigurationSection createSection(@NotNull ConfigPath path) {
+        if (path.isEmpty()) throw new IllegalArgumentException("path is empty");
+        CommentConfigurationSection section = walkOrCreate(path);
+        if (section instanceof CommentMemorySection) {
+            return ((CommentMemorySection) section).createEntry(path.last());
+        } else {
+            return section.createSection(ConfigPath.ofSegments(path.last()));
+        }
+    }
+
+    @Override
+    public @Nullable List<String> getComments(@NotNull String key) {
+        Map<String, List<String>> lines = comments;
+        return lines == null ? null : lines.get(key);
+    }
+
+    @Override
+    public @Nullable List<String> getComments(@NotNull ConfigPath path) {
+        if (path.isEmpty()) return null;
+        CommentConfigurationSection section = walk(path);
+        return section == null ? null : section.getComments(path.last());
+    }
+
+    @Override
+    public void setComments(@NotNull String key, @Nullable List<String> lines) {
+        putComments(key, lines == null || lines.isEmpty() ? null : Collections.unmodifiableList(new ArrayList<>(lines)));
+    }
+
+    @Override
+    public void setComments(@NotNull ConfigPath path, @Nullable List<String> lines) {
+        if (path.isEmpty()) throw new IllegalArgumentException("path is empty");
+        CommentConfigurationSection section = walk(path);
+        if (section == null) throw new IllegalArgumentException("no section holds " + path);
+        section.setComments(path.last(), lines);
+    }
+
+    /**
+     * Stores comment lines under a key without copying them.
+     *
+     * @param lines unmodifiable non-empty lines, or null to remove the comment
+     */
+    void putComments(@NotNull String key, @Nullable List<String> lines) {
+        Map<String, List<String>> current = comments;
+        List<String> old;
+        if (lines == null) {
+            if (current == null) return;
+            old = current.remove(key);
+            if (old == null) return;
+        } else {
+            if (current == null) current = commentMap();
+            old = current.put(key, lines);
+            if (lines.equals(old)) return;
+        }
+        markModified();
+    }
+
+    private synchronized @NotNull Map<String, List<String>> commentMap() {
+        Map<String, List<String>> current = comments;
+        if (current == null) {
+            current = map instanceof ConcurrentMap ? new ConcurrentHashMap<>() : new HashMap<>();
+            comments = current;
+        }
+        return current;
+    }
+
+    /**
+     * Number of mutations made anywhere in this tree so far. Two equal readings mean nothing was
+     * set, removed or created in between, which makes it a cheap staleness check for cached views.
+     */
+    public long getModificationCount() {
+        return root instanceof CommentMemorySection ? ((CommentMemorySection) root).modifications : 0;
+    }
+
+    /**
+     * Counts a change that does not go through the section entries, such as a comment edit,
+     * as a modification of the tree.
+     */
+    protected void markModified() {
+        if (root instanceof CommentMemorySection) MODIFICATIONS.incrementAndGet((CommentMemorySection) root);
+    }
+
+    /**
+     * Binds a typed view onto this section, see {@link ru.basher.configuration.binding.Binding}.
+     */
+    public <T> @NotNull Binding<T> bind(@NotNull Class<T> type) {
+        return Binding.bind(this, type);
+    }
+
+    /**
+     * Value stored under a single key of this section. Every lookup of a key goes through here,
+     * while iteration goes through {@link #getMap()}.
+     */
+    protected @Nullable Object getEntry(@NotNull String key) {
+        return map.get(key);
+    }
+
+    /**
+     * Stores a value under a single key of this section. Every mutation of the section goes through
+     * {@link #putEntry}, {@link #removeEntry} and {@link #createEntry}.
+     */
+    protected void putEntry(@NotNull String key, @NotNull Object value) {
+        Object old = map.put(key, value);
+        changed(key, old, value);
+    }
+
+    /**
+     * Removes the value under a single key of this section, together with the comment of the key.
+     */
+    protected void removeEntry(@NotNull String key) {
+        Object old = map.remove(key);
+        if (old == null) return;
+        Map<String, List<String>> lines = comments;
+        if (lines != null) lines.remove(key);
+        changed(key, old, null);
+    }
+
+    protected @NotNull CommentConfigurationSection createEntry(@NotNull String key) {
+        CommentConfigurationSection newSection = newChild(key);
+        Object old = map.put(key, newSection);
+        changed(key, old, newSection);
+        return newSection;
+    }
+
+    /**
+     * Removes every entry of this section.
+     */
+    protected void clearEntries() {
+        for (String key : new ArrayList<>(map.keySet())) {
+            removeEntry(key);
+        }
+    }
+
+    /**
+     * Returns the section stored under the key, replacing a missing or non-section value with a new section.
+     * With concurrent storage the replacement is atomic, so racing writers end up in the same section.
+     */
+    protected @NotNull CommentConfigurationSection getOrCreateEntry(@NotNull String key) {
+        for (;;) {
+            Object node = getEntry(key);
+            if (node instanceof CommentConfigurationSection) return (CommentConfigurationSection) node;
+
+            CommentConfigurationSection newSection = newChild(key);
+            if (map instanceof ConcurrentMap) {
+                ConcurrentMap<String, Object> concurrentMap = (ConcurrentMap<String, Object>) map;
+                boolean stored = node == null
+                        ? concurrentMap.putIfAbsent(key, newSection) == null
+                        : concurrentMap.replace(key, node, newSection);
+                if (!stored) continue;
             } else {
-                section = subSection;
+                map.put(key, newSection);
             }
+            changed(key, node, newSection);
+            return newSection;
         }
+    }
 
-        String key = path.substring(b);
-        if (section == this) {
-            CommentConfigurationSection newSection = new CommentMemorySection(this, path, new LinkedHashMap<>());
-            map.put(key, newSection);
-            return newSection;
-        } else {
-            return section.createSection(key);
+    /**
+     * Child sections use the same kind of storage as their parent.
+     */
+    protected @NotNull CommentConfigurationSection newChild(@NotNull String key) {
+        return new CommentMemorySection(this, key, map instanceof ConcurrentOrderedMap ? new ConcurrentOrderedMap() : new LinkedHashMap<>());
+    }
+
+    private void changed(@NotNull String key, @Nullable Object oldValue, @Nullable Object newValue) {
+        Map<String, ListView> views = listViews;
+        if (views != null) views.remove(key);
+
+        if (!(root instanceof CommentMemorySection)) return;
+        CommentMemorySection rootSection = (CommentMemorySection) root;
+        MODIFICATIONS.incrementAndGet(rootSection);
+
+        PathIndex index = rootSection.pathIndex;
+        if (index == null) return;
+
+        // a section removed from the tree may still be mutated through an old reference
+        CommentConfigurationSection section = this;
+        CommentConfigurationSection parent;
+        while ((parent = section.getParent()) != null) {
+            if (parent.getMap().get(section.getName()) != section) return;
+            if (PathIndex.isUnindexed(section.getName())) return;
+            section = parent;
+        }
+        if (PathIndex.isUnindexed(key)) return;
+        index.replace(PathIndex.childPath(currentPath, key), oldValue, newValue);
+    }
+
+    /**
+     * @return the section holding the last segment of the path, or null if some intermediate node is not a section
+     */
+    private @Nullable CommentConfigurationSection walk(@NotNull ConfigPath path) {
+        CommentConfigurationSection section = this;
+        for (int i = 0, last = path.size() - 1; i < last; i++) {
+            Object node = entry(section, path.segment(i));
+            if (!(node instanceof CommentConfigurationSection)) return null;
+            section = (CommentConfigurationSection) node;
+        }
+        return section;
+    }
+
+    private static @Nullable Object entry(@NotNull CommentConfigurationSection section, @NotNull String key) {
+        return section instanceof CommentMemorySection ? ((CommentMemorySection) section).getEntry(key) : section.getMap().get(key);
+    }
+
+    /**
+     * Same as {@link #walk(ConfigPath)}, but replaces missing or non-section intermediate nodes with new sections.
+     */
+    private @NotNull CommentConfigurationSection walkOrCreate(@NotNull ConfigPath path) {
+        CommentConfigurationSection section = this;
+        for (int i = 0, last = path.size() - 1; i < last; i++) {
+            String segment = path.segment(i);
+            Object node = entry(section, segment);
+            if (node instanceof CommentConfigurationSection) {
+                section = (CommentConfigurationSection) node;
+            } else if (section instanceof CommentMemorySection) {
+                section = ((CommentMemorySection) section).getOrCreateEntry(segment);
+            } else {
+                section = section.createSection(ConfigPath.ofSegments(segment));
+            }
         }
+        return section;
     }
 
     @Override
@@ -164,97 +421,179 @@ public class CommentMemorySection implements CommentConfigurationSection {
         return getString(section, null);
     }
 
+    @Override
+    public @Nullable String getString(@NotNull ConfigPath section) {
+        return getString(section, null);
+    }
+
     @Override
     public @Nullable String getString(@NotNull String section, @Nullable String def) {
         Object obj = get(section);
         return obj instanceof String ? (String) obj : def;
     }
 
+    @Override
+    public @Nullable String getString(@NotNull ConfigPath section, @Nullable String def) {
+        Object obj = get(section);
+        return obj instanceof String ? (String) obj : def;
+    }
+
     @Override
     public boolean isString(@NotNull String section) {
         return get(section) instanceof String;
     }
 
+    @Override
+    public boolean isString(@NotNull ConfigPath section) {
+        return get(section) instanceof String;
+    }
+
     @Override
     public int getInt(@NotNull String section) {
         return getInt(section, 0);
     }
 
+    @Override
+    public int getInt(@NotNull ConfigPath section) {
+        return getInt(section, 0);
+    }
+
     @Override
     public int getInt(@NotNull String section, int def) {
         Object obj = get(section);
         return obj instanceof Number ? ((Number) obj).intValue() : def;
     }
 
+    @Override
+    public int getInt(@NotNull ConfigPath section, int def) {
+        Object obj = get(section);
+        return obj instanceof Number ? ((Number) obj).intValue() : def;
+    }
+
     @Override
     public boolean isInt(@NotNull String section) {
         return get(section) instanceof Integer;
     }
 
+    @Override
+    public boolean isInt(@NotNull ConfigPath section) {
+        return get(section) instanceof Integer;
+    }
+
     @Override
     public boolean getBoolean(@NotNull String section) {
         return getBoolean(section, false);
     }
 
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath section) {
+        return getBoolean(section, false);
+    }
+
     @Override
     public boolean getBoolean(@NotNull String section, boolean def) {
         Object obj = get(section);
         return obj instanceof Boolean ? (Boolean) obj : def;
     }
 
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath section, boolean def) {
+        Object obj = get(section);
+        return obj instanceof Boolean ? (Boolean) obj : def;
+    }
+
     @Override
     public boolean isBoolean(@NotNull String section) {
         return get(section) instanceof Boolean;
     }
 
+    @Override
+    public boolean isBoolean(@NotNull ConfigPath section) {
+        return get(section) instanceof Boolean;
+    }
+
     @Override
     public double getDouble(@NotNull String section) {
         return getDouble(section, 0);
     }
 
+    @Override
+    public double getDouble(@NotNull ConfigPath section) {
+        return getDouble(section, 0);
+    }
+
     @Override
     public double getDouble(@NotNull String section, double def) {
         Object obj = get(section);
         return obj instanceof Number ? ((Number) obj).doubleValue() : def;
     }
 
+    @Override
+    public double getDouble(@NotNull ConfigPath section, double def) {
+        Object obj = get(section);
+        return obj instanceof Number ? ((Number) obj).doubleValue() : def;
+    }
+
     @Override
     public boolean isDouble(@NotNull String section) {
         return get(section) instanceof Double;
     }
 
+    @Override
+    public boolean isDouble(@NotNull ConfigPath section) {
+        return get(section) instanceof Double;
+    }
+
     @Override
     public long getLong(@NotNull String section) {
         return getLong(section, 0);
     }
 
+    @Override
+    public long getLong(@NotNull ConfigPath section) {
+        return getLong(section, 0);
+    }
+
     @Override
     public long getLong(@NotNull String section, long def) {
         Object obj = get(section);
         return obj instanceof Number ? ((Number) obj).longValue() : def;
     }
 
+    @Override
+    public long getLong(@NotNull ConfigPath section, long def) {
+        Object obj = get(section);
+        return obj instanceof Number ? ((Number) obj).longValue() : def;
+    }
+
     @Override
     public boolean isLong(@NotNull String section) {
         return get(section) instanceof Long;
     }
 
+    @Override
+    public boolean isLong(@NotNull ConfigPath section) {
+        return get(section) instanceof Long;
+    }
+
     @Override
     public @Nullable <T> List<T> getList(@NotNull String section, @NotNull Class<T> type) {
         return getList(section, type, null);
     }
 
+    @Override
+    public @Nullable <T> List<T> getList(@NotNull ConfigPath section, @NotNull Class<T> type) {
+        return getList(section, type, null);
+    }
+
     @Override
     public @Nullable <T> List<T> getList(@NotNull String section, @NotNull Class<T> type, @Nullable List<T> def) {
-        Object obj = get(section);
-        if (!(obj instanceof List)) return def;
-        List<?> list = (List<?>) obj;
-        List<T> result = new ArrayList<>();
-        for (Object o : list) {
-            if (!type.isInstance(o)) continue;
-            result.add(type.cast(o));
-        }
-        return result;
+        return castList(section, getModificationCount(), get(section), type, def);
+    }
+
+    @Override
+    public @Nullable <T> List<T> getList(@NotNull ConfigPath section, @NotNull Class<T> type, @Nullable List<T> def) {
+        return castList(section.toString(), getModificationCount(), get(section), type, def);
     }
 
     @Override
@@ -262,56 +601,151 @@ public class CommentMemorySection implements CommentConfigurationSection {
         return get(section) instanceof List;
     }
 
+    @Override
+    public boolean isList(@NotNull ConfigPath section) {
+        return get(section) instanceof List;
+    }
+
     @Override
     public @NotNull List<String> getStringList(@NotNull String section) {
-        Object obj = get(section);
-        if (!(obj instanceof List)) return new ArrayList<>();
-        List<?> list = (List<?>) obj;
-        List<String> result = new ArrayList<>();
-        for (Object o : list) {
-            result.add(o.toString());
-        }
-        return result;
+        return stringList(section, getModificationCount(), get(section));
+    }
+
+    @Override
+    public @NotNull List<String> getStringList(@NotNull ConfigPath section) {
+        return stringList(section.toString(), getModificationCount(), get(section));
     }
 
     @Override
     public @NotNull List<Integer> getIntegerList(@NotNull String section) {
-        return getList(section, Integer.class, new ArrayList<>());
+        return getList(section, Integer.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Integer> getIntegerList(@NotNull ConfigPath section) {
+        return getList(section, Integer.class, Collections.emptyList());
     }
 
     @Override
     public @NotNull List<Boolean> getBooleanList(@NotNull String section) {
-        return getList(section, Boolean.class, new ArrayList<>());
+        return getList(section, Boolean.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Boolean> getBooleanList(@NotNull ConfigPath section) {
+        return getList(section, Boolean.class, Collections.emptyList());
     }
 
     @Override
     public @NotNull List<Double> getDoubleList(@NotNull String section) {
-        return getList(section, Double.class, new ArrayList<>());
+        return getList(section, Double.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Double> getDoubleList(@NotNull ConfigPath section) {
+        return getList(section, Double.class, Collections.emptyList());
     }
 
     @Override
     public @NotNull List<Float> getFloatList(@NotNull String section) {
-        return getList(section, Float.class, new ArrayList<>());
+        return getList(section, Float.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Float> getFloatList(@NotNull ConfigPath section) {
+        return getList(section, Float.class, Collections.emptyList());
     }
 
     @Override
     public @NotNull List<Long> getLongList(@NotNull String section) {
-        return getList(section, Long.class, new ArrayList<>());
+        return getList(section, Long.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Long> getLongList(@NotNull ConfigPath section) {
+        return getList(section, Long.class, Collections.emptyList());
     }
 
     @Override
     public @NotNull List<Byte> getByteList(@NotNull String section) {
-        return getList(section, Byte.class, new ArrayList<>());
+        return getList(section, Byte.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Byte> getByteList(@NotNull ConfigPath section) {
+        return getList(section, Byte.class, Collections.emptyList());
     }
 
     @Override
     public @NotNull List<Character> getCharacterList(@NotNull String section) {
-        return getList(section, Character.class, new ArrayList<>());
+        return getList(section, Character.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Character> getCharacterList(@NotNull ConfigPath section) {
+        return getList(section, Character.class, Collections.emptyList());
     }
 
     @Override
     public @NotNull List<Short> getShortList(@NotNull String section) {
-        return getList(section, Short.class, new ArrayList<>());
+        return getList(section, Short.class, Collections.emptyList());
+    }
+
+    @Override
+    public @NotNull List<Short> getShortList(@NotNull ConfigPath section) {
+        return getList(section, Short.class, Collections.emptyList());
+    }
+
+    @Override
+    public int @NotNull [] getIntArray(@NotNull String section) {
+        return toIntArray(get(section));
+    }
+
+    @Override
+    public int @NotNull [] getIntArray(@NotNull ConfigPath section) {
+        return toIntArray(get(section));
+    }
+
+    @Override
+    public long @NotNull [] getLongArray(@NotNull String section) {
+        return toLongArray(get(section));
+    }
+
+    @Override
+    public long @NotNull [] getLongArray(@NotNull ConfigPath section) {
+        return toLongArray(get(section));
+    }
+
+    @Override
+    public double @NotNull [] getDoubleArray(@NotNull String section) {
+        return toDoubleArray(get(section));
+    }
+
+    @Override
+    public double @NotNull [] getDoubleArray(@NotNull ConfigPath section) {
+        return toDoubleArray(get(section));
+    }
+
+    @Override
+    public boolean @NotNull [] getBooleanArray(@NotNull String section) {
+        return toBooleanArray(get(section));
+    }
+
+    @Override
+    public boolean @NotNull [] getBooleanArray(@NotNull ConfigPath section) {
+        return toBooleanArray(get(section));
+    }
+
+    @Override
+    public @NotNull IntList getIntList(@NotNull String section) {
+        Object obj = get(section);
+        return obj instanceof IntList && ((IntList) obj).isPacked() ? (IntList) obj : IntList.wrap(toIntArray(obj));
+    }
+
+    @Override
+    public @NotNull IntList getIntList(@NotNull ConfigPath section) {
+        Object obj = get(section);
+        return obj instanceof IntList && ((IntList) obj).isPacked() ? (IntList) obj : IntList.wrap(toIntArray(obj));
     }
 
     @Override
@@ -319,6 +753,11 @@ public class CommentMemorySection implements CommentConfigurationSection {
         return getObject(section, type, null);
     }
 
+    @Override
+    public <T> @Nullable T getObject(@NotNull ConfigPath section, @NotNull Class<T> type) {
+        return getObject(section, type, null);
+    }
+
     @Override
     public <T> @Nullable T getObject(@NotNull String section, @NotNull Class<T> type, @Nullable T def) {
         Object obj = get(section);
@@ -326,14 +765,169 @@ public class CommentMemorySection implements CommentConfigurationSection {
         return type.isInstance(obj) ? type.cast(obj) : def;
     }
 
+    @Override
+    public <T> @Nullable T getObject(@NotNull ConfigPath section, @NotNull Class<T> type, @Nullable T def) {
+        Object obj = get(section);
+        if (obj == null) return def;
+        return type.isInstance(obj) ? type.cast(obj) : def;
+    }
+
     @Override
     public @Nullable CommentConfigurationSection getConfigurationSection(@NotNull String section) {
         Object obj = get(section);
         return obj instanceof CommentConfigurationSection ? (CommentConfigurationSection) obj : null;
     }
 
+    @Override
+    public @Nullable CommentConfigurationSection getConfigurationSection(@NotNull ConfigPath section) {
+        Object obj = get(section);
+        return obj instanceof CommentConfigurationSection ? (CommentConfigurationSection) obj : null;
+    }
+
     @Override
     public boolean isConfigurationSection(@NotNull String section) {
         return get(section) instanceof CommentConfigurationSection;
     }
+    @Override
+    public boolean isConfigurationSection(@NotNull ConfigPath section) {
+        return get(section) instanceof CommentConfigurationSection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> @Nullable List<T> castList(@NotNull String path, long modifications, @Nullable Object obj, @NotNull Class<T> type, @Nullable List<T> def) {
+        if (!(obj instanceof List)) return def;
+        List<?> view = cachedListView(path, modifications, (List<?>) obj, type);
+        if (view != null) return (List<T>) view;
+
+        List<?> list = (List<?>) obj;
+        List<T> result;
+        if (isPrimitiveListOf(list, type)) {
+            result = Collections.unmodifiableList((List<T>) list);
+        } else {
+            List<T> filtered = new ArrayList<>();
+            for (Object o : list) {
+                if (!type.isInstance(o)) continue;
+                filtered.add(type.cast(o));
+            }
+            result = Collections.unmodifiableList(filtered);
+        }
+        cacheListView(path, modifications, list, type, result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull List<String> stringList(@NotNull String path, long modifications, @Nullable Object obj) {
+        if (!(obj instanceof List)) return Collections.emptyList();
+        List<?> view = cachedListView(path, modifications, (List<?>) obj, Object.class);
+        if (view != null) return (List<String>) view;
+
+        List<?> list = (List<?>) obj;
+        List<String> result = new ArrayList<>();
+        for (Object o : list) {
+            result.add(o.toString());
+        }
+        result = Collections.unmodifiableList(result);
+        cacheListView(path, modifications, list, Object.class, result);
+        return result;
+    }
+
+    private static boolean isPrimitiveListOf(@NotNull List<?> list, @NotNull Class<?> type) {
+        if (!PrimitiveLists.isPacked(list)) return false;
+        return list instanceof IntList && type == Integer.class
+                || list instanceof LongList && type == Long.class
+                || list instanceof DoubleList && type == Double.class
+                || list instanceof BooleanList && type == Boolean.class;
+    }
+
+    private @Nullable List<?> cachedListView(@NotNull String path, long modifications, @NotNull List<?> source, @NotNull Class<?> type) {
+        Map<String, ListView> views = listViews;
+        if (views == null) return null;
+        for (ListView view = views.get(path); view != null; view = view.next) {
+            if (view.source == source && view.type == type && view.modifications == modifications) return view.view;
+        }
+        return null;
+    }
+
+    private void cacheListView(@NotNull String path, long modifications, @NotNull List<?> source, @NotNull Class<?> type, @NotNull List<?> view) {
+        // without a counting root a change made through another section could not be detected
+        if (!(root instanceof CommentMemorySection)) return;
+        Map<String, ListView> views = listViews;
+        if (views == null) {
+            views = new ConcurrentHashMap<>();
+            listViews = views;
+        }
+        ListView head = views.get(path);
+        if (head != null && (head.source != source || head.modifications != modifications)) head = null;
+        views.put(path, new ListView(source, modifications, type, view, head));
+    }
+
+    /**
+     * Converted list cached by {@link #getList} and {@link #getStringList}. It is valid while the stored list
+     * is the same object and the tree has not been modified since, as a path may be served by the root
+     * while the list is replaced through the section that owns it.
+     * {@code type} is {@link Object} for string lists.
+     */
+    private static final class ListView {
+        private final List<?> source;
+        private final long modifications;
+        private final Class<?> type;
+        private final List<?> view;
+        private final @Nullable ListView next;
+
+        private ListView(@NotNull List<?> source, long modifications, @NotNull Class<?> type, @NotNull List<?> view, @Nullable ListView next) {
+            this.source = source;
+            this.modifications = modifications;
+            this.type = type;
+            this.view = view;
+            this.next = next;
+        }
+    }
+
+    private static int @NotNull [] toIntArray(@Nullable Object obj) {
+        if (obj instanceof IntList && ((IntList) obj).isPacked()) return ((IntList) obj).toIntArray();
+        if (!(obj instanceof List)) return new int[0];
+        List<?> list = (List<?>) obj;
+        int[] result = new int[list.size()];
+        int size = 0;
+        for (Object o : list) {
+            if (o instanceof Number) result[size++] = ((Number) o).intValue();
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static long @NotNull [] toLongArray(@Nullable Object obj) {
+        if (obj instanceof LongList && ((LongList) obj).isPacked()) return ((LongList) obj).toLongArray();
+        if (!(obj instanceof List)) return new long[0];
+        List<?> list = (List<?>) obj;
+        long[] result = new long[list.size()];
+        int size = 0;
+        for (Object o : list) {
+            if (o instanceof Number) result[size++] = ((Number) o).longValue();
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static double @NotNull [] toDoubleArray(@Nullable Object obj) {
+        if (obj instanceof DoubleList && ((DoubleList) obj).isPacked()) return ((DoubleList) obj).toDoubleArray();
+        if (!(obj instanceof List)) return new double[0];
+        List<?> list = (List<?>) obj;
+        double[] result = new double[list.size()];
+        int size = 0;
+        for (Object o : list) {
+            if (o instanceof Number) result[size++] = ((Number) o).doubleValue();
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static boolean @NotNull [] toBooleanArray(@Nullable Object obj) {
+        if (obj instanceof BooleanList && ((BooleanList) obj).isPacked()) return ((BooleanList) obj).toBooleanArray();
+        if (!(obj instanceof List)) return new boolean[0];
+        List<?> list = (List<?>) obj;
+        boolean[] result = new boolean[list.size()];
+        int size = 0;
+        for (Object o : list) {
+            if (o instanceof Boolean) result[size++] = (Boolean) o;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
 }
@@ -0,0 +1,102 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.list.PrimitiveLists;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deeply immutable copy of a configuration tree. Any mutation throws {@link UnsupportedOperationException}.
+ * <p>
+ * The root of a snapshot carries a full-path index, so reads of any depth are a single hash probe.
+ * A snapshot never changes after it is built and may be read from any number of threads without locking,
+ * provided it was published safely, e.g. through {@link SnapshotHolder}.
+ */
+public final class CommentSnapshotSection extends CommentMemorySection {
+
+    private CommentSnapshotSection(@Nullable CommentConfigurationSection parent, @NotNull String name, @NotNull Map<String, Object> backing) {
+        super(parent, name, Collections.unmodifiableMap(backing));
+    }
+
+    static @NotNull CommentSnapshotSection of(@NotNull CommentConfigurationSection source) {
+        CommentSnapshotSection snapshot = copy(null, "", source);
+        snapshot.pathIndex = PathIndex.build(snapshot);
+        return snapshot;
+    }
+
+    private static @NotNull CommentSnapshotSection copy(@Nullable CommentConfigurationSection parent, @NotNull String name, @NotNull CommentConfigurationSection source) {
+        Map<String, Object> sourceMap = source.getMap();
+        Map<String, Object> backing = new LinkedHashMap<>(Math.max(4, (int) (sourceMap.size() / 0.75f) + 1));
+        CommentSnapshotSection snapshot = new CommentSnapshotSection(parent, name, backing);
+        for (Map.Entry<String, Object> entry : sourceMap.entrySet()) {
+            String key = entry.getKey();
+            backing.put(key, freeze(snapshot, key, entry.getValue()));
+            List<String> comments = source.getComments(key);
+            if (comments != null && !comments.isEmpty()) {
+                // stored comment lists are read-only already and can be shared
+                snapshot.putComments(key, source instanceof CommentMemorySection ? comments : Collections.unmodifiableList(new ArrayList<>(comments)));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return a deeply immutable copy of a value, with sections copied as detached roots without a path index
+     */
+    static @NotNull Object freezeValue(@NotNull Object value) {
+        if (value instanceof CommentConfigurationSection) {
+            return copy(null, "", (CommentConfigurationSection) value);
+        }
+        if (value instanceof List) {
+            return freezeList((List<?>) value);
+        }
+        return value;
+    }
+
+    private static @NotNull Object freeze(@NotNull CommentSnapshotSection parent, @NotNull String key, @NotNull Object value) {
+        if (value instanceof CommentConfigurationSection) {
+            return copy(parent, key, (CommentConfigurationSection) value);
+        }
+        if (value instanceof List) {
+            return freezeList((List<?>) value);
+        }
+        return value;
+    }
+
+    private static @NotNull List<?> freezeList(@NotNull List<?> list) {
+        List<?> primitive = PrimitiveLists.readOnlyCopy(list);
+        if (primitive != null) return primitive;
+
+        List<Object> copy = new ArrayList<>(list.size());
+        for (Object element : list) {
+            copy.add(element instanceof List ? freezeList((List<?>) element) : element);
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    @Override
+    protected void putEntry(@NotNull String key, @NotNull Object value) {
+        throw new UnsupportedOperationException("Configuration snapshot is read-only");
+    }
+
+    @Override
+    protected void removeEntry(@NotNull String key) {
+        throw new UnsupportedOperationException("Configuration snapshot is read-only");
+    }
+
+    @Override
+    public void setComments(@NotNull String key, @Nullable List<String> lines) {
+        throw new UnsupportedOperationException("Configuration snapshot is read-only");
+    }
+
+    @Override
+    protected @NotNull CommentConfigurationSection createEntry(@NotNull String key) {
+        throw new UnsupportedOperationException("Configuration snapshot is read-only");
+    }
+
+}
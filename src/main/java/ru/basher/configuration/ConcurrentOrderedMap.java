@@ -0,0 +1,227 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Thread-safe map that iterates in insertion order, used as section storage by concurrent configurations.
+ * <p>
+ * Entries live in a {@link ConcurrentHashMap}, so reads never lock and writes only contend on the same bin.
+ * Each entry is also linked into a {@link ConcurrentSkipListMap} under the sequence number of its first insertion,
+ * which iteration walks without copying. This gives the same order as {@link LinkedHashMap} (replacing a value
+ * keeps its position, removing and re-adding a key moves it to the end). Iterators are weakly consistent.
+ * Null keys and values are not permitted.
+ */
+public class ConcurrentOrderedMap extends AbstractMap<String, Object> implements ConcurrentMap<String, Object> {
+
+    private static final Object REMOVED = new Object();
+
+    private final ConcurrentHashMap<String, Node> nodes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Node> ordered = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public @Nullable Object get(Object key) {
+        Node node = nodes.get(key);
+        if (node == null) return null;
+        Object value = node.value;
+        return value == REMOVED ? null : value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    @Override
+    public @Nullable Object put(@NotNull String key, @NotNull Object value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public @Nullable Object putIfAbsent(@NotNull String key, @NotNull Object value) {
+        return put(key, value, true);
+    }
+
+    private @Nullable Object put(@NotNull String key, @NotNull Object value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(value);
+        for (;;) {
+            Node node = nodes.get(key);
+            if (node == null) {
+                Node created = new Node(key, sequence.incrementAndGet(), value);
+                node = nodes.putIfAbsent(key, created);
+                if (node == null) {
+                    ordered.put(created.order, created);
+                    // a remove that ran before the node was linked could not unlink it
+                    if (created.value == REMOVED) ordered.remove(created.order, created);
+                    return null;
+                }
+            }
+
+            Object old = node.value;
+            if (old == REMOVED) {
+                // a concurrent remove owns this node, help it out of the table and retry
+                unlink(node);
+                continue;
+            }
+            if (onlyIfAbsent) return old;
+            if (node.cas(old, value)) return old;
+        }
+    }
+
+    @Override
+    public @Nullable Object remove(Object key) {
+        Node node = nodes.get(key);
+        if (node == null) return null;
+        for (;;) {
+            Object old = node.value;
+            if (old == REMOVED) return null;
+            if (node.cas(old, REMOVED)) {
+                unlink(node);
+                return old;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(@NotNull Object key, Object value) {
+        Node node = nodes.get(key);
+        if (node == null) return false;
+        for (;;) {
+            Object old = node.value;
+            if (old == REMOVED || !old.equals(value)) return false;
+            if (node.cas(old, REMOVED)) {
+                unlink(node);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(@NotNull String key, @NotNull Object oldValue, @NotNull Object newValue) {
+        Objects.requireNonNull(newValue);
+        Node node = nodes.get(key);
+        if (node == null) return false;
+        for (;;) {
+            Object old = node.value;
+            if (old == REMOVED || !old.equals(oldValue)) return false;
+            if (node.cas(old, newValue)) return true;
+        }
+    }
+
+    @Override
+    public @Nullable Object replace(@NotNull String key, @NotNull Object value) {
+        Objects.requireNonNull(value);
+        Node node = nodes.get(key);
+        if (node == null) return null;
+        for (;;) {
+            Object old = node.value;
+            if (old == REMOVED) return null;
+            if (node.cas(old, value)) return old;
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (String key : nodes.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, Object>> entrySet() {
+        return new EntrySet();
+    }
+
+    private void unlink(@NotNull Node node) {
+        nodes.remove(node.key, node);
+        ordered.remove(node.order, node);
+    }
+
+    private static final class Node {
+
+        private static final AtomicReferenceFieldUpdater<Node, Object> VALUE =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+
+        private final String key;
+        private final long order;
+        private volatile Object value;
+
+        private Node(@NotNull String key, long order, @NotNull Object value) {
+            this.key = key;
+            this.order = order;
+            this.value = value;
+        }
+
+        private boolean cas(@NotNull Object expected, @NotNull Object update) {
+            return VALUE.compareAndSet(this, expected, update);
+        }
+
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public @NotNull Iterator<Entry<String, Object>> iterator() {
+            Iterator<Node> iterator = ordered.values().iterator();
+            return new Iterator<Entry<String, Object>>() {
+                private Entry<String, Object> next;
+                private Entry<String, Object> last;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && iterator.hasNext()) {
+                        Node node = iterator.next();
+                        Object value = node.value;
+                        if (value != REMOVED) next = new SimpleImmutableEntry<>(node.key, value);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    last = next;
+                    next = null;
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) throw new IllegalStateException();
+                    ConcurrentOrderedMap.this.remove(last.getKey());
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return nodes.size();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentOrderedMap.this.clear();
+        }
+
+    }
+
+}
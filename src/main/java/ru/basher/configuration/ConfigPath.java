@@ -0,0 +1,133 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dotted configuration path parsed once into its segments.
+ * <p>
+ * Keep frequently used paths in constants and pass them to the {@link CommentConfigurationSection} overloads:
+ * lookups then walk the pre-split segments without scanning or allocating.
+ * Segment hash codes are computed eagerly, so map probes never hash the key again.
+ */
+public final class ConfigPath {
+
+    private static final int CACHE_LIMIT = 4096;
+    private static final Map<String, ConfigPath> CACHE = new ConcurrentHashMap<>();
+
+    private static final ConfigPath EMPTY = new ConfigPath("", new String[0]);
+
+    private final String path;
+    private final String[] segments;
+    private final int hash;
+    /**
+     * Whether some segment contains the path separator, so that the dotted string does not tell the segments apart.
+     */
+    private final boolean dottedSegment;
+
+    private ConfigPath(@NotNull String path, @NotNull String[] segments) {
+        this.path = path;
+        this.segments = segments;
+        boolean dotted = false;
+        for (String segment : segments) {
+            segment.hashCode();
+            dotted |= segment.indexOf(CommentMemorySection.PATH_SEPARATOR) != -1;
+        }
+        this.hash = Arrays.hashCode(segments);
+        this.dottedSegment = dotted;
+    }
+
+    /**
+     * Parses a dotted path. An empty string is the path of the section itself.
+     */
+    public static @NotNull ConfigPath of(@NotNull String path) {
+        if (path.isEmpty()) return EMPTY;
+
+        int count = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == CommentMemorySection.PATH_SEPARATOR) count++;
+        }
+
+        String[] segments = new String[count];
+        int b = 0;
+        int i;
+        int n = 0;
+        while ((i = path.indexOf(CommentMemorySection.PATH_SEPARATOR, b)) != -1) {
+            segments[n++] = path.substring(b, i);
+            b = i + 1;
+        }
+        segments[n] = path.substring(b);
+        return new ConfigPath(path, segments);
+    }
+
+    /**
+     * Builds a path from raw segments. Segments may contain the path separator,
+     * which is the only way to address such keys.
+     */
+    public static @NotNull ConfigPath ofSegments(@NotNull String... segments) {
+        if (segments.length == 0) return EMPTY;
+        return new ConfigPath(String.join(String.valueOf(CommentMemorySection.PATH_SEPARATOR), segments), segments.clone());
+    }
+
+    /**
+     * Shared compiled form of a string path, used by the string-based section accessors.
+     * The cache is bounded: once full it is dropped and refilled by the paths that are still in use.
+     */
+    static @NotNull ConfigPath cached(@NotNull String path) {
+        ConfigPath result = CACHE.get(path);
+        if (result != null) return result;
+
+        result = of(path);
+        if (CACHE.size() >= CACHE_LIMIT) CACHE.clear();
+        CACHE.put(path, result);
+        return result;
+    }
+
+    public @NotNull ConfigPath child(@NotNull String key) {
+        String[] child = Arrays.copyOf(segments, segments.length + 1);
+        child[segments.length] = key;
+        return new ConfigPath(path.isEmpty() ? key : path + CommentMemorySection.PATH_SEPARATOR + key, child);
+    }
+
+    public int size() {
+        return segments.length;
+    }
+
+    public boolean isEmpty() {
+        return segments.length == 0;
+    }
+
+    public @NotNull String segment(int index) {
+        return segments[index];
+    }
+
+    public @NotNull String last() {
+        return segments[segments.length - 1];
+    }
+
+    boolean hasDottedSegment() {
+        return dottedSegment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConfigPath)) return false;
+        ConfigPath other = (ConfigPath) o;
+        return hash == other.hash && Arrays.equals(segments, other.segments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return path;
+    }
+
+}
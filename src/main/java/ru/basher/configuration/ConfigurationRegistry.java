@@ -0,0 +1,169 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Loads configuration files in parallel.
+ * <p>
+ * Every file is loaded into its own configuration on the executor, so loading many files at startup takes about
+ * as long as the slowest of them, up to the parallelism of the executor. A file is loaded once: requesting it again
+ * returns the same future until it is {@link #remove removed}. A configuration is handed over through its future
+ * and may then be used on any thread, but by one owner at a time, as usual.
+ */
+public class ConfigurationRegistry {
+
+    private final Executor executor;
+    private final Supplier<CommentFileConfiguration> factory;
+    private final Map<File, CompletableFuture<CommentFileConfiguration>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Loads on the common fork-join pool, which runs as many loads at once as there are cores.
+     */
+    public ConfigurationRegistry() {
+        this(ForkJoinPool.commonPool(), CommentFileConfiguration::new);
+    }
+
+    /**
+     * @param factory creates the configuration each file is loaded into, e.g. with the binary cache enabled
+     */
+    public ConfigurationRegistry(@NotNull Executor executor, @NotNull Supplier<CommentFileConfiguration> factory) {
+        this.executor = executor;
+        this.factory = factory;
+    }
+
+    /**
+     * Loads every file on its own virtual thread when the runtime has them (Java 21+), otherwise on the common
+     * fork-join pool. Virtual threads suit files on slow storage; parsing itself is bound by the cores either way.
+     */
+    public static @NotNull ConfigurationRegistry withVirtualThreads(@NotNull Supplier<CommentFileConfiguration> factory) {
+        Executor executor;
+        try {
+            executor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            executor = ForkJoinPool.commonPool();
+        }
+        return new ConfigurationRegistry(executor, factory);
+    }
+
+    /**
+     * Starts loading the file, unless it was already requested.
+     *
+     * @return completes with the loaded configuration, or exceptionally if the file could not be loaded
+     */
+    public @NotNull CompletableFuture<CommentFileConfiguration> load(@NotNull File file) {
+        File key = key(file);
+        CompletableFuture<CommentFileConfiguration> future = new CompletableFuture<>();
+        CompletableFuture<CommentFileConfiguration> existing = loads.putIfAbsent(key, future);
+        if (existing != null) return existing;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    CommentFileConfiguration config = factory.get();
+                    config.load(key);
+                    future.complete(config);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Starts loading all the files at once.
+     *
+     * @return the load of each file, in the given order
+     */
+    public @NotNull Map<File, CompletableFuture<CommentFileConfiguration>> loadAll(@NotNull Collection<File> files) {
+        Map<File, CompletableFuture<CommentFileConfiguration>> result = new LinkedHashMap<>();
+        for (File file : files) {
+            result.put(file, load(file));
+        }
+        return result;
+    }
+
+    /**
+     * Starts loading every {@code .yml} and {@code .yaml} file directly in the directory, see {@link #loadAll}.
+     *
+     * @return the load of each file, ordered by file name
+     */
+    public @NotNull Map<File, CompletableFuture<CommentFileConfiguration>> loadDirectory(@NotNull File directory) {
+        File[] files = directory.listFiles(file -> file.isFile() && (file.getName().endsWith(".yml") || file.getName().endsWith(".yaml")));
+        if (files == null) throw new RuntimeException(new IOException("Cannot list directory " + directory));
+        Arrays.sort(files);
+        return loadAll(Arrays.asList(files));
+    }
+
+    /**
+     * @return the configuration loaded from the file, or null if it was not requested, is still loading or failed
+     */
+    public @Nullable CommentFileConfiguration getIfLoaded(@NotNull File file) {
+        CompletableFuture<CommentFileConfiguration> future = loads.get(key(file));
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) return null;
+        return future.join();
+    }
+
+    /**
+     * Forgets the file, so that the next {@link #load} reads it again. A load in progress still completes its future.
+     */
+    public void remove(@NotNull File file) {
+        loads.remove(key(file));
+    }
+
+    /**
+     * @return the file the loads are kept under, so that different paths to the same file share one load
+     */
+    private static @NotNull File key(@NotNull File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    /**
+     * Waits until every file requested so far is loaded.
+     *
+     * @return the configurations by absolute file
+     * @throws RuntimeException if any file failed to load, after all others are done; further failures are suppressed in it
+     */
+    public @NotNull Map<File, CommentFileConfiguration> awaitAll() {
+        return awaitAll(new LinkedHashMap<>(loads));
+    }
+
+    /**
+     * Waits until all the loads are done, e.g. those returned by {@link #loadAll}.
+     *
+     * @return the configurations, in the order of the loads
+     * @throws RuntimeException if any file failed to load, after all others are done; further failures are suppressed in it
+     */
+    public static @NotNull Map<File, CommentFileConfiguration> awaitAll(@NotNull Map<File, CompletableFuture<CommentFileConfiguration>> loads) {
+        Map<File, CommentFileConfiguration> result = new LinkedHashMap<>();
+        RuntimeException failure = null;
+        for (Map.Entry<File, CompletableFuture<CommentFileConfiguration>> entry : loads.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                RuntimeException error = new RuntimeException("Failed to load " + entry.getKey(), cause);
+                if (failure == null) {
+                    failure = error;
+                } else {
+                    failure.addSuppressed(error);
+                }
+            }
+        }
+        if (failure != null) throw failure;
+        return result;
+    }
+
+}
@@ -0,0 +1,340 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.comments.CommentEventsCollector;
+import org.yaml.snakeyaml.comments.CommentLine;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+import ru.basher.configuration.list.PrimitiveLists;
+
+import java.util.*;
+
+/**
+ * Builds configuration sections straight from parser events, without composing a SnakeYAML node graph first,
+ * so only the resulting tree is ever held in memory.
+ * <p>
+ * Walks the events the same way {@link org.yaml.snakeyaml.composer.Composer} does and produces the same result
+ * as reading its node graph: block comments and blank lines collected before a key belong to that key,
+ * mappings inside sequences are dropped, aliases are copied.
+ */
+final class EventLoader {
+
+    private final Parser parser;
+    private final LoaderOptions options;
+    private final @Nullable ScalarInterner interner;
+
+    private final CommentEventsCollector blockComments;
+    private final CommentEventsCollector inlineComments;
+
+    private final Map<String, Object> anchors = new HashMap<>();
+    private final Set<String> building = new HashSet<>();
+    private int collectionAliases;
+    private int depth;
+
+    /**
+     * @param interner deduplicates the keys and scalar values read, if not null
+     */
+    EventLoader(@NotNull Parser parser, @NotNull LoaderOptions options, @Nullable ScalarInterner interner) {
+        this.parser = parser;
+        this.options = options;
+        this.interner = interner;
+        this.blockComments = new CommentEventsCollector(parser, CommentType.BLANK_LINE, CommentType.BLOCK);
+        this.inlineComments = new CommentEventsCollector(parser, CommentType.IN_LINE);
+    }
+
+    /**
+     * Reads a single document into the section. Documents whose root is not a mapping leave it untouched.
+     */
+    void load(@NotNull CommentConfigurationSection root) {
+        parser.getEvent(); // stream start
+        if (!parser.checkEvent(Event.ID.StreamEnd)) {
+            blockComments.collectEvents();
+            if (!parser.checkEvent(Event.ID.StreamEnd)) {
+                parser.getEvent(); // document start
+                readRoot(root);
+                blockComments.collectEvents();
+                parser.getEvent(); // document end
+            }
+            blockComments.consume();
+        }
+
+        if (!parser.checkEvent(Event.ID.StreamEnd)) {
+            Event event = parser.getEvent();
+            throw new YAMLException("expected a single document in the stream, but found another document " + event.getStartMark());
+        }
+        parser.getEvent();
+    }
+
+    /**
+     * Reads a document holding a single top-level entry, see {@link LazyEntry}.
+     * Sections are created as children of the owner, but the entry is not stored in it.
+     *
+     * @return the value of the entry, or null if the document holds none
+     */
+    @Nullable Object loadEntry(@NotNull CommentMemorySection owner) {
+        CommentMemorySection holder = new CommentMemorySection(null, "") {
+            @Override
+            protected @NotNull CommentConfigurationSection newChild(@NotNull String key) {
+                return owner.newChild(key);
+            }
+        };
+        load(holder);
+        Iterator<Object> values = holder.getMap().values().iterator();
+        return values.hasNext() ? values.next() : null;
+    }
+
+    private void readRoot(@NotNull CommentConfigurationSection root) {
+        blockComments.collectEvents();
+        if (parser.checkEvent(Event.ID.MappingStart)) {
+            enter();
+            readMapping(true, root);
+            leave();
+        } else {
+            readValue();
+        }
+    }
+
+    /**
+     * @param keepComments whether the comments of its keys are kept, which they are not for mappings inside sequences
+     */
+    private void readMapping(boolean keepComments, @NotNull CommentConfigurationSection target) {
+        MappingStartEvent start = (MappingStartEvent) parser.getEvent();
+        checkTag(start.getTag(), start);
+        if (start.isFlow()) blockComments.consume();
+
+        String anchor = start.getAnchor();
+        if (anchor != null) building.add(anchor);
+
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            blockComments.collectEvents();
+            if (parser.checkEvent(Event.ID.MappingEnd)) break;
+            readEntry(keepComments, target);
+        }
+        if (start.isFlow()) inlineComments.collectEvents().consume();
+        parser.getEvent(); // mapping end
+        inlineComments.collectEvents().consume();
+
+        if (anchor != null) {
+            building.remove(anchor);
+            anchors.put(anchor, new AnchoredSection(target));
+        }
+    }
+
+    private void readEntry(boolean keepComments, @NotNull CommentConfigurationSection target) {
+        String key = readKey();
+        List<CommentLine> keyComments = blockComments.consume();
+        inlineComments.collectEvents().consume();
+        leave();
+
+        blockComments.collectEvents();
+        if (parser.checkEvent(Event.ID.MappingStart)) {
+            enter();
+            readMapping(keepComments, target.createSection(key));
+            leave();
+        } else {
+            Object value = readValue();
+            if (value instanceof AnchoredSection) {
+                copySection((AnchoredSection) value, keepComments, target.createSection(key));
+            } else if (value != null) {
+                target.set(key, value);
+            }
+        }
+
+        if (keepComments && !keyComments.isEmpty()) attachComments(target, key, keyComments);
+    }
+
+    /**
+     * Stores the comments on the section that holds the key, which is a nested one for keys with dots.
+     */
+    private static void attachComments(@NotNull CommentConfigurationSection target, @NotNull String key, @NotNull List<CommentLine> keyComments) {
+        CommentConfigurationSection owner = target;
+        String last = key;
+        int separator = key.lastIndexOf(CommentMemorySection.PATH_SEPARATOR);
+        if (separator != -1) {
+            owner = target.getConfigurationSection(key.substring(0, separator));
+            last = key.substring(separator + 1);
+            if (owner == null) return;
+        }
+
+        String[] lines = new String[keyComments.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = keyComments.get(i).getValue();
+        }
+        if (owner instanceof CommentMemorySection) {
+            ((CommentMemorySection) owner).putComments(last, Collections.unmodifiableList(Arrays.asList(lines)));
+        } else {
+            owner.setComments(last, Arrays.asList(lines));
+        }
+    }
+
+    private @NotNull String readKey() {
+        blockComments.collectEvents();
+        if (parser.checkEvent(Event.ID.Alias)) {
+            Object value = readAlias();
+            if (value instanceof AnchoredSection || value instanceof List) {
+                throw new YAMLException("only scalar keys are supported");
+            }
+            enter();
+            return interner == null ? String.valueOf(value) : interner.string(String.valueOf(value));
+        }
+        if (!parser.checkEvent(Event.ID.Scalar)) {
+            throw new YAMLException("only scalar keys are supported " + parser.peekEvent().getStartMark());
+        }
+
+        enter();
+        ScalarEvent event = (ScalarEvent) parser.getEvent();
+        Tag tag = scalarTag(event);
+        if (event.getAnchor() != null) anchors.put(event.getAnchor(), Scalars.construct(tag, event.getValue()));
+        return interner == null ? event.getValue() : interner.string(event.getValue());
+    }
+
+    /**
+     * Reads any node that is not a mapping value of a section: scalars, sequences and aliases.
+     *
+     * @return the value to store, an {@link AnchoredSection} for an alias of a mapping,
+     * or null for a mapping, which is skipped
+     */
+    private @Nullable Object readValue() {
+        blockComments.collectEvents();
+        if (parser.checkEvent(Event.ID.Alias)) {
+            Object value = readAlias();
+            return value instanceof List ? copyList((List<?>) value) : value;
+        }
+
+        enter();
+        Object result;
+        if (parser.checkEvent(Event.ID.Scalar)) {
+            ScalarEvent event = (ScalarEvent) parser.getEvent();
+            result = Scalars.construct(scalarTag(event), event.getValue());
+            if (interner != null) result = interner.scalar(result);
+            if (event.getAnchor() != null) anchors.put(event.getAnchor(), result);
+            blockComments.consume();
+            inlineComments.collectEvents().consume();
+        } else if (parser.checkEvent(Event.ID.SequenceStart)) {
+            result = readSequence();
+        } else {
+            // mappings inside sequences are not supported by sections, read them only to keep anchors
+            readMapping(false, new CommentMemorySection(null, ""));
+            result = null;
+        }
+        leave();
+        return result;
+    }
+
+    private @NotNull List<?> readSequence() {
+        SequenceStartEvent start = (SequenceStartEvent) parser.getEvent();
+        checkTag(start.getTag(), start);
+        if (start.isFlow()) blockComments.consume();
+
+        String anchor = start.getAnchor();
+        if (anchor != null) building.add(anchor);
+
+        List<Object> list = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            blockComments.collectEvents();
+            if (parser.checkEvent(Event.ID.SequenceEnd)) break;
+            Object element = readValue();
+            if (element != null && !(element instanceof AnchoredSection)) list.add(element);
+        }
+        if (start.isFlow()) inlineComments.collectEvents().consume();
+        parser.getEvent(); // sequence end
+        inlineComments.collectEvents().consume();
+
+        List<?> result = PrimitiveLists.compact(list);
+        if (anchor != null) {
+            building.remove(anchor);
+            anchors.put(anchor, result);
+        }
+        return result;
+    }
+
+    private @NotNull Object readAlias() {
+        AliasEvent event = (AliasEvent) parser.getEvent();
+        String anchor = event.getAnchor();
+        if (building.contains(anchor)) {
+            throw new YAMLException("recursive alias is not supported: " + anchor + event.getStartMark());
+        }
+
+        Object value = anchors.get(anchor);
+        if (value == null) throw new YAMLException("found undefined alias " + anchor + event.getStartMark());
+        if (value instanceof AnchoredSection || value instanceof List) {
+            if (++collectionAliases > options.getMaxAliasesForCollections()) {
+                throw new YAMLException("Number of aliases for non-scalar nodes exceeds the specified max=" + options.getMaxAliasesForCollections());
+            }
+        }
+
+        blockComments.consume();
+        inlineComments.collectEvents().consume();
+        return value;
+    }
+
+    /**
+     * Copies an aliased mapping, together with the comments of its keys, as reading the same node twice would.
+     * Comments of the source were never stored if it lies inside a sequence; those of the copy are dropped if it does.
+     */
+    private void copySection(@NotNull AnchoredSection source, boolean keepComments, @NotNull CommentConfigurationSection target) {
+        CommentFileConfiguration.copyEntries(source.section, target);
+        if (!keepComments) clearComments(target);
+    }
+
+    private static void clearComments(@NotNull CommentConfigurationSection section) {
+        for (Map.Entry<String, Object> entry : section.getMap().entrySet()) {
+            section.setComments(entry.getKey(), null);
+            if (entry.getValue() instanceof CommentConfigurationSection) {
+                clearComments((CommentConfigurationSection) entry.getValue());
+            }
+        }
+    }
+
+    private static @NotNull List<?> copyList(@NotNull List<?> list) {
+        return PrimitiveLists.compact(PrimitiveLists.mutableCopy(list));
+    }
+
+    private @NotNull Tag scalarTag(@NotNull ScalarEvent event) {
+        String tag = event.getTag();
+        if (tag == null || tag.equals("!")) {
+            return event.getImplicit().canOmitTagInPlainScalar() ? Scalars.resolve(event.getValue()) : Tag.STR;
+        }
+        return checkTag(tag, event);
+    }
+
+    private @Nullable Tag checkTag(@Nullable String tag, @NotNull Event event) {
+        if (tag == null || tag.equals("!")) return null;
+
+        Tag result = new Tag(tag);
+        if (result.isCustomGlobal() && !options.getTagInspector().isGlobalTagAllowed(result)) {
+            throw new YAMLException("Global tag is not allowed: " + tag + event.getStartMark());
+        }
+        return result;
+    }
+
+    private void enter() {
+        if (depth > options.getNestingDepthLimit()) {
+            throw new YAMLException("Nesting Depth exceeded max " + options.getNestingDepthLimit());
+        }
+        depth++;
+    }
+
+    private void leave() {
+        depth--;
+    }
+
+    /**
+     * A mapping that was read under an anchor.
+     */
+    private static final class AnchoredSection {
+
+        private final CommentConfigurationSection section;
+
+        private AnchoredSection(@NotNull CommentConfigurationSection section) {
+            this.section = section;
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes configuration sections to a {@link Writer} as a stream of emitter events, without building a node graph
+ * or the whole document in memory.
+ * <p>
+ * Emits exactly the events {@link org.yaml.snakeyaml.serializer.Serializer} produces for the node graph
+ * of a configuration, so the output is the same: plain keys with their block comments, plain numbers and booleans,
+ * single-quoted strings, block sequences and mappings.
+ */
+final class EventWriter {
+
+    private static final Resolver RESOLVER = new Resolver();
+    private static final ImplicitTuple RESOLVED = new ImplicitTuple(true, false);
+    private static final ImplicitTuple STRING = new ImplicitTuple(false, true);
+
+    private final Writer writer;
+    private final DumperOptions options;
+    private Emitter emitter;
+
+    EventWriter(@NotNull Writer writer, @NotNull DumperOptions options) {
+        this.writer = writer;
+        this.options = options;
+    }
+
+    /**
+     * Writes the section as a single document.
+     * <p>
+     * Top-level entries of a lazily loaded configuration that were never read are copied from the source as they are.
+     * The entries between them are written as separate documents of one mapping each, which come out the same
+     * as the lines they would take within the whole document.
+     */
+    void write(@NotNull CommentConfigurationSection root) throws IOException {
+        Map<String, Object> lazy = root instanceof CommentFileConfiguration ? ((CommentFileConfiguration) root).lazyEntries() : null;
+        if (lazy == null || lazy.isEmpty()) {
+            writeDocument(root, root.getMap().entrySet());
+            return;
+        }
+
+        List<Map.Entry<String, Object>> run = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : lazy.entrySet()) {
+            if (entry.getValue() instanceof LazyEntry) {
+                if (!run.isEmpty()) writeDocument(root, run);
+                run.clear();
+                ((LazyEntry) entry.getValue()).writeTo(writer);
+            } else {
+                run.add(entry);
+            }
+        }
+        if (!run.isEmpty()) writeDocument(root, run);
+    }
+
+    private void writeDocument(@NotNull CommentConfigurationSection root, @NotNull Iterable<Map.Entry<String, Object>> entries) throws IOException {
+        emitter = new Emitter(writer, options);
+        emitter.emit(new StreamStartEvent(null, null));
+        emitter.emit(new DocumentStartEvent(null, null, false, null, null));
+        writeMapping(root, entries);
+        emitter.emit(new DocumentEndEvent(null, null, false));
+        emitter.emit(new StreamEndEvent(null, null));
+    }
+
+    private void writeMapping(@NotNull CommentConfigurationSection section, @NotNull Iterable<Map.Entry<String, Object>> entries) throws IOException {
+        emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, DumperOptions.FlowStyle.BLOCK));
+        for (Map.Entry<String, Object> entry : entries) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            writeComments(section.getComments(key));
+
+            emitter.emit(new ScalarEvent(null, Tag.STR.getValue(), implicit(Tag.STR, key), key, null, null, DumperOptions.ScalarStyle.PLAIN));
+
+            if (value instanceof CommentConfigurationSection) {
+                CommentConfigurationSection child = (CommentConfigurationSection) value;
+                writeMapping(child, child.getMap().entrySet());
+            } else {
+                writeValue(value);
+            }
+        }
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    private void writeValue(@NotNull Object value) throws IOException {
+        if (value instanceof List<?>) {
+            emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, DumperOptions.FlowStyle.BLOCK));
+            for (Object element : (List<?>) value) {
+                writeValue(element);
+            }
+            emitter.emit(new SequenceEndEvent(null, null));
+            return;
+        }
+
+        String text = String.valueOf(value);
+        if (value instanceof Integer || value instanceof Long || value instanceof BigInteger) {
+            emitter.emit(new ScalarEvent(null, Tag.INT.getValue(), RESOLVED, text, null, null, DumperOptions.ScalarStyle.PLAIN));
+        } else if (value instanceof Boolean) {
+            emitter.emit(new ScalarEvent(null, Tag.BOOL.getValue(), RESOLVED, text, null, null, DumperOptions.ScalarStyle.PLAIN));
+        } else if (value instanceof Double || value instanceof Float) {
+            // NaN, Infinity and exponents without a sign do not resolve as floats and get an explicit tag
+            emitter.emit(new ScalarEvent(null, Tag.FLOAT.getValue(), implicit(Tag.FLOAT, text), text, null, null, DumperOptions.ScalarStyle.PLAIN));
+        } else {
+            // quoted strings never need their tag, whatever they resolve to
+            emitter.emit(new ScalarEvent(null, Tag.STR.getValue(), STRING, text, null, null, DumperOptions.ScalarStyle.SINGLE_QUOTED));
+        }
+    }
+
+    private void writeComments(@Nullable List<String> lines) throws IOException {
+        if (lines == null) return;
+        for (String line : lines) {
+            emitter.emit(new CommentEvent(CommentType.BLOCK, line, null, null));
+        }
+    }
+
+    private static @NotNull ImplicitTuple implicit(@NotNull Tag tag, @NotNull String value) {
+        return new ImplicitTuple(tag.equals(RESOLVER.resolve(NodeId.scalar, value, true)), Tag.STR.equals(tag));
+    }
+
+}
@@ -0,0 +1,144 @@
+package ru.basher.configuration;
+
+import com.google.common.base.Charsets;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Reads configuration files through a {@link FileChannel} into pooled buffers that are reused between loads,
+ * hashing and decoding the bytes in bulk instead of through a stream and reader chain.
+ * <p>
+ * The pool is a few slots held by this class rather than by the loading threads, so at most
+ * {@code POOL_SIZE} buffers of up to {@code REUSE_LIMIT} each stay allocated, and they go away with the class loader.
+ * <p>
+ * Files are read rather than memory-mapped, as a mapped file stays locked on some platforms until the mapping
+ * is garbage collected, which would make saving over it fail.
+ */
+final class FileContent {
+
+    /**
+     * Buffers up to this size are kept for the next load; larger files allocate for each load.
+     */
+    private static final int REUSE_LIMIT = 256 << 10;
+    private static final int HASH_CHUNK = 64 << 10;
+    private static final int POOL_SIZE = 4;
+
+    private static final AtomicReferenceArray<Buffers> POOL = new AtomicReferenceArray<>(POOL_SIZE);
+
+    private FileContent() {
+    }
+
+    /**
+     * Reads the file, adds its bytes to the digest and passes its text, decoded as UTF-8 without a byte order mark,
+     * to the consumer. The reader is only valid until the consumer returns.
+     */
+    static void read(@NotNull File file, @NotNull MessageDigest digest, @NotNull Consumer<Reader> consumer) throws IOException {
+        Buffers buffers = take();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) throw new IOException("File is too large: " + file);
+
+            ByteBuffer bytes = buffers.bytes((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) != -1) {
+                // reads up to the size the file had when opened
+            }
+            ((Buffer) bytes).flip();
+            digest.update(bytes.duplicate());
+
+            CharBuffer chars = buffers.chars(bytes.remaining());
+            CharsetDecoder decoder = buffers.decoder.reset();
+            decoder.decode(bytes, chars, true);
+            decoder.flush(chars);
+            ((Buffer) chars).flip();
+
+            int start = chars.hasRemaining() && chars.get(0) == '\uFEFF' ? 1 : 0;
+            consumer.accept(new CharArrayReader(chars.array(), start, chars.limit() - start));
+        } finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Adds the bytes of the file to the digest.
+     */
+    static void digest(@NotNull File file, @NotNull MessageDigest digest) throws IOException {
+        Buffers buffers = take();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = buffers.bytes(HASH_CHUNK);
+            while (channel.read(bytes) != -1) {
+                ((Buffer) bytes).flip();
+                digest.update(bytes);
+                ((Buffer) bytes).clear();
+            }
+        } finally {
+            release(buffers);
+        }
+    }
+
+    /**
+     * Takes pooled buffers out of the pool, so that concurrent and nested reads each get their own.
+     */
+    private static @NotNull Buffers take() {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            Buffers buffers = POOL.getAndSet(i, null);
+            if (buffers != null) return buffers;
+        }
+        return new Buffers();
+    }
+
+    private static void release(@NotNull Buffers buffers) {
+        buffers.trim();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (POOL.compareAndSet(i, null, buffers)) return;
+        }
+    }
+
+    private static final class Buffers {
+
+        private final CharsetDecoder decoder = Charsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer bytes = ByteBuffer.allocate(0);
+        private CharBuffer chars = CharBuffer.allocate(0);
+
+        /**
+         * @return a cleared buffer with exactly the capacity as its limit
+         */
+        private @NotNull ByteBuffer bytes(int capacity) {
+            if (bytes.capacity() < capacity) bytes = ByteBuffer.allocate(capacity);
+            ((Buffer) bytes).clear();
+            ((Buffer) bytes).limit(capacity);
+            return bytes;
+        }
+
+        /**
+         * UTF-8 never decodes into more chars than it has bytes, malformed input included.
+         */
+        private @NotNull CharBuffer chars(int bytes) {
+            if (chars.capacity() < bytes) chars = CharBuffer.allocate(bytes);
+            ((Buffer) chars).clear();
+            return chars;
+        }
+
+        private void trim() {
+            if (bytes.capacity() > REUSE_LIMIT) bytes = ByteBuffer.allocate(0);
+            if (chars.capacity() > REUSE_LIMIT) chars = CharBuffer.allocate(0);
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package ru.basher.configuration;
+
+import com.google.common.base.Charsets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import ru.basher.configuration.list.PrimitiveLists;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Top-level entry of a lazily loaded configuration that was not read yet, see {@link LazyIndexer}.
+ * <p>
+ * Holds the range of the source the entry was written in, from its first comment line up to the line
+ * the next entry starts on. The source is shared by every entry of the document.
+ */
+final class LazyEntry {
+
+    private final byte[] source;
+    private final int start;
+    private final int keyStart;
+    private final int end;
+    private final @Nullable List<String> comments;
+    private final boolean shared;
+    private volatile @Nullable Object frozen;
+
+    LazyEntry(byte @NotNull [] source, int start, int keyStart, int end, @Nullable List<String> comments) {
+        this(source, start, keyStart, end, comments, false);
+    }
+
+    private LazyEntry(byte @NotNull [] source, int start, int keyStart, int end, @Nullable List<String> comments, boolean shared) {
+        this.source = source;
+        this.start = start;
+        this.keyStart = keyStart;
+        this.end = end;
+        this.comments = comments;
+        this.shared = shared;
+    }
+
+    /**
+     * @return the same entry, but parsed only once for all configurations it is read into, from any thread;
+     * each of them gets its own copy of the value
+     */
+    @NotNull LazyEntry shared() {
+        return new LazyEntry(source, start, keyStart, end, comments, true);
+    }
+
+    /**
+     * @return comments of the key, which are read with the index and stored on the owner right away
+     */
+    @Nullable List<String> getComments() {
+        return comments;
+    }
+
+    /**
+     * Parses the entry, or copies it if it is shared. Sections are created as children of the owner, but nothing is stored in it.
+     */
+    @NotNull Object read(@NotNull CommentMemorySection owner, @NotNull String key, @NotNull LoaderOptions options, @Nullable ScalarInterner interner) {
+        if (!shared) return parse(owner, options, interner);
+
+        Object value = frozen;
+        if (value == null) {
+            // racing threads may both parse, either result is the same
+            value = CommentSnapshotSection.freezeValue(parse(new CommentMemorySection(null, ""), options, interner));
+            frozen = value;
+        }
+        if (value instanceof CommentConfigurationSection) {
+            CommentConfigurationSection section = owner.newChild(key);
+            CommentFileConfiguration.copyEntries((CommentConfigurationSection) value, section);
+            return section;
+        }
+        return value instanceof List ? PrimitiveLists.mutableCopy((List<?>) value) : value;
+    }
+
+    private @NotNull Object parse(@NotNull CommentMemorySection owner, @NotNull LoaderOptions options, @Nullable ScalarInterner interner) {
+        InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(source, keyStart, end - keyStart), Charsets.UTF_8);
+        Object value = new EventLoader(new ParserImpl(new StreamReader(reader), options), options, interner).loadEntry(owner);
+        if (value == null) throw new IllegalStateException("Lazy entry holds no value");
+        return value;
+    }
+
+    /**
+     * Writes the entry exactly as it was loaded, comments included.
+     */
+    void writeTo(@NotNull Writer writer) throws IOException {
+        writer.write(new String(source, start, end - start, Charsets.UTF_8));
+        byte last = source[end - 1];
+        if (last != '\n' && last != '\r') writer.write('\n');
+    }
+
+}
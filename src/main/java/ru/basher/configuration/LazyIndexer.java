@@ -0,0 +1,240 @@
+package ru.basher.configuration;
+
+import com.google.common.base.Charsets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.comments.CommentEventsCollector;
+import org.yaml.snakeyaml.comments.CommentLine;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a document into its top-level entries without reading their values, for lazy loading.
+ * <p>
+ * Walks the parser events the way {@link EventLoader} does, so every top-level key collects the same comments,
+ * and maps the lines the entries start on back to offsets of the source. Documents that cannot be split into
+ * independent entries, e.g. with anchors, tags, a flow-style root or keys with dots, are loaded in full instead.
+ */
+final class LazyIndexer {
+
+    private static final Unsupported UNSUPPORTED = new Unsupported();
+
+    private final byte[] source;
+    private final LoaderOptions options;
+    private final Parser parser;
+    private final CommentEventsCollector blockComments;
+    private final CommentEventsCollector inlineComments;
+    private int depth;
+
+    // line the scan stopped on and the offset it starts at
+    private int line;
+    private int lineStart;
+    private int scan;
+
+    private LazyIndexer(byte @NotNull [] source, int offset, @NotNull LoaderOptions options) {
+        this.source = source;
+        this.options = options;
+        this.parser = new ParserImpl(new StreamReader(new InputStreamReader(
+                new ByteArrayInputStream(source, offset, source.length - offset), Charsets.UTF_8)), options);
+        this.blockComments = new CommentEventsCollector(parser, CommentType.BLANK_LINE, CommentType.BLOCK);
+        this.inlineComments = new CommentEventsCollector(parser, CommentType.IN_LINE);
+        this.lineStart = offset;
+        this.scan = offset;
+    }
+
+    /**
+     * @param source UTF-8 encoded document
+     * @return the top-level entries in document order, or null if the document has to be loaded in full
+     */
+    static @Nullable Map<String, LazyEntry> index(byte @NotNull [] source, @NotNull LoaderOptions options) {
+        int offset = hasBom(source) ? 3 : 0;
+        try {
+            return new LazyIndexer(source, offset, options).index();
+        } catch (Unsupported e) {
+            return null;
+        }
+    }
+
+    private @Nullable Map<String, LazyEntry> index() {
+        parser.getEvent(); // stream start
+        blockComments.collectEvents();
+        if (parser.checkEvent(Event.ID.StreamEnd)) return null;
+
+        DocumentStartEvent document = (DocumentStartEvent) parser.getEvent();
+        if (document.getExplicit()) return null;
+        blockComments.collectEvents();
+        if (!parser.checkEvent(Event.ID.MappingStart)) return null;
+        MappingStartEvent root = (MappingStartEvent) parser.getEvent();
+        if (root.isFlow()) return null;
+        checkNode(root.getAnchor(), root.getTag());
+
+        Map<String, LazyEntry> entries = new LinkedHashMap<>();
+        String key = null;
+        int start = 0, keyStart = 0;
+        List<String> comments = null;
+        while (true) {
+            blockComments.collectEvents();
+            if (parser.checkEvent(Event.ID.MappingEnd)) break;
+            if (!parser.checkEvent(Event.ID.Scalar)) return null;
+
+            ScalarEvent event = (ScalarEvent) parser.getEvent();
+            checkNode(event.getAnchor(), event.getTag());
+            String name = event.getValue();
+            if (event.getStartMark().getColumn() != 0 || name.indexOf(CommentMemorySection.PATH_SEPARATOR) != -1 || entries.containsKey(name)) {
+                return null;
+            }
+            List<CommentLine> keyComments = blockComments.consume();
+            inlineComments.collectEvents().consume();
+
+            int entryStart = offset(keyComments.isEmpty() ? event.getStartMark().getLine() : keyComments.get(0).getStartMark().getLine());
+            if (key != null) entries.put(key, new LazyEntry(source, start, keyStart, entryStart, comments));
+
+            key = name;
+            start = entryStart;
+            keyStart = offset(event.getStartMark().getLine());
+            comments = lines(keyComments);
+            skipNode();
+        }
+        parser.getEvent(); // mapping end
+        inlineComments.collectEvents().consume();
+        blockComments.collectEvents();
+        DocumentEndEvent end = (DocumentEndEvent) parser.getEvent();
+        if (end.getExplicit() || !parser.checkEvent(Event.ID.StreamEnd)) return null;
+
+        if (key != null) entries.put(key, new LazyEntry(source, start, keyStart, source.length, comments));
+        return entries;
+    }
+
+    /**
+     * Reads past a node the way {@link EventLoader} reads it, collecting and dropping the same comments.
+     */
+    private void skipNode() {
+        blockComments.collectEvents();
+        if (++depth > options.getNestingDepthLimit()) throw UNSUPPORTED;
+        if (parser.checkEvent(Event.ID.MappingStart)) {
+            skipMapping();
+        } else if (parser.checkEvent(Event.ID.SequenceStart)) {
+            skipSequence();
+        } else if (parser.checkEvent(Event.ID.Scalar)) {
+            ScalarEvent event = (ScalarEvent) parser.getEvent();
+            checkNode(event.getAnchor(), event.getTag());
+            blockComments.consume();
+            inlineComments.collectEvents().consume();
+        } else {
+            throw UNSUPPORTED; // alias
+        }
+        depth--;
+    }
+
+    private void skipMapping() {
+        MappingStartEvent start = (MappingStartEvent) parser.getEvent();
+        checkNode(start.getAnchor(), start.getTag());
+        if (start.isFlow()) blockComments.consume();
+
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            blockComments.collectEvents();
+            if (parser.checkEvent(Event.ID.MappingEnd)) break;
+            if (!parser.checkEvent(Event.ID.Scalar)) throw UNSUPPORTED;
+            ScalarEvent key = (ScalarEvent) parser.getEvent();
+            checkNode(key.getAnchor(), key.getTag());
+            blockComments.consume();
+            inlineComments.collectEvents().consume();
+            skipNode();
+        }
+        if (start.isFlow()) inlineComments.collectEvents().consume();
+        parser.getEvent(); // mapping end
+        inlineComments.collectEvents().consume();
+    }
+
+    private void skipSequence() {
+        SequenceStartEvent start = (SequenceStartEvent) parser.getEvent();
+        checkNode(start.getAnchor(), start.getTag());
+        if (start.isFlow()) blockComments.consume();
+
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            blockComments.collectEvents();
+            if (parser.checkEvent(Event.ID.SequenceEnd)) break;
+            skipNode();
+        }
+        if (start.isFlow()) inlineComments.collectEvents().consume();
+        parser.getEvent(); // sequence end
+        inlineComments.collectEvents().consume();
+    }
+
+    /**
+     * Anchors may be used by other entries and tags are checked when the whole document is loaded.
+     */
+    private static void checkNode(@Nullable String anchor, @Nullable String tag) {
+        if (anchor != null || (tag != null && !tag.equals("!"))) throw UNSUPPORTED;
+    }
+
+    /**
+     * @return offset of the line in the source, counting line breaks the way {@link StreamReader} does
+     */
+    private int offset(int targetLine) {
+        while (line < targetLine && scan < source.length) {
+            int b = source[scan] & 0xFF;
+            int width = 1;
+            boolean lineBreak;
+            if (b == '\n') {
+                lineBreak = true;
+            } else if (b == '\r') {
+                lineBreak = scan + 1 < source.length && source[scan + 1] != '\n';
+            } else if (b == 0xC2 && scan + 1 < source.length && (source[scan + 1] & 0xFF) == 0x85) {
+                width = 2;
+                lineBreak = true;
+            } else if (b == 0xE2 && scan + 2 < source.length && (source[scan + 1] & 0xFF) == 0x80
+                    && ((source[scan + 2] & 0xFF) == 0xA8 || (source[scan + 2] & 0xFF) == 0xA9)) {
+                width = 3;
+                lineBreak = true;
+            } else {
+                lineBreak = false;
+            }
+            scan += width;
+            if (lineBreak) {
+                line++;
+                lineStart = scan;
+            }
+        }
+        return lineStart;
+    }
+
+    private static @Nullable List<String> lines(@NotNull List<CommentLine> comments) {
+        if (comments.isEmpty()) return null;
+        String[] lines = new String[comments.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = comments.get(i).getValue();
+        }
+        return Collections.unmodifiableList(Arrays.asList(lines));
+    }
+
+    private static boolean hasBom(byte @NotNull [] source) {
+        return source.length >= 3 && (source[0] & 0xFF) == 0xEF && (source[1] & 0xFF) == 0xBB && (source[2] & 0xFF) == 0xBF;
+    }
+
+    /**
+     * Thrown to fall back to loading the whole document.
+     */
+    private static final class Unsupported extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Flat full-path index of a configuration tree: every value and section is reachable with a single hash probe.
+ * Kept up to date by {@link CommentMemorySection} mutations while enabled on the root.
+ * <p>
+ * Keys that contain the path separator, and everything below them, are left out: their dotted paths would collide
+ * with those of nested keys, and string paths never reach them anyway.
+ */
+final class PathIndex {
+
+    private final Map<String, Object> entries;
+
+    PathIndex(@NotNull Map<String, Object> entries) {
+        this.entries = entries;
+    }
+
+    static @NotNull PathIndex build(@NotNull CommentConfigurationSection root) {
+        PathIndex index = new PathIndex(new HashMap<>());
+        index.addTree("", root);
+        return index;
+    }
+
+    @Nullable Object get(@NotNull String path) {
+        return entries.get(path);
+    }
+
+    void replace(@NotNull String path, @Nullable Object oldValue, @Nullable Object newValue) {
+        if (oldValue instanceof CommentConfigurationSection) {
+            removeTree(path, (CommentConfigurationSection) oldValue);
+        }
+        if (newValue == null) {
+            entries.remove(path);
+            return;
+        }
+        entries.put(path, newValue);
+        if (newValue instanceof CommentConfigurationSection) {
+            addTree(path, (CommentConfigurationSection) newValue);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void addTree(@NotNull String path, @NotNull CommentConfigurationSection section) {
+        for (Map.Entry<String, Object> entry : section.getMap().entrySet()) {
+            if (isUnindexed(entry.getKey())) continue;
+            String childPath = childPath(path, entry.getKey());
+            Object value = entry.getValue();
+            entries.put(childPath, value);
+            if (value instanceof CommentConfigurationSection) {
+                addTree(childPath, (CommentConfigurationSection) value);
+            }
+        }
+    }
+
+    private void removeTree(@NotNull String path, @NotNull CommentConfigurationSection section) {
+        for (Map.Entry<String, Object> entry : section.getMap().entrySet()) {
+            if (isUnindexed(entry.getKey())) continue;
+            String childPath = childPath(path, entry.getKey());
+            entries.remove(childPath);
+            if (entry.getValue() instanceof CommentConfigurationSection) {
+                removeTree(childPath, (CommentConfigurationSection) entry.getValue());
+            }
+        }
+    }
+
+    static boolean isUnindexed(@NotNull String key) {
+        return key.indexOf(CommentMemorySection.PATH_SEPARATOR) != -1;
+    }
+
+    static @NotNull String childPath(@NotNull String path, @NotNull String key) {
+        return path.isEmpty() ? key : path + CommentMemorySection.PATH_SEPARATOR + key;
+    }
+
+}
@@ -0,0 +1,139 @@
+package ru.basher.configuration;
+
+import com.google.common.io.ByteStreams;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parsed documents by content hash, e.g. the default configurations bundled in plugin jars.
+ * <p>
+ * Loading the same content again returns a new configuration without parsing it again: the document is kept
+ * as a template, and a copy only takes its top-level keys. Each top-level entry is parsed once, when a copy first
+ * reads it, and copied into every copy that reads it, so copies are independent and may be changed freely.
+ * Entries a copy never reads are saved from the cached source as they are.
+ * <p>
+ * Templates are evicted least recently used first, once there are more than the maximum number of them or their
+ * sources take more than the maximum number of bytes. The cache is safe to use from any number of threads.
+ */
+public final class ResourceCache {
+
+    private static final ResourceCache SHARED = new ResourceCache(256, 64L << 20);
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<ByteBuffer, Template> templates = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public ResourceCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the process-wide cache, which keeps up to 256 documents of up to 64 MB in total
+     */
+    public static @NotNull ResourceCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Loads a UTF-8 encoded document, parsing it only if no document with the same content is cached.
+     *
+     * @return a new configuration holding the document
+     */
+    public @NotNull CommentFileConfiguration load(byte @NotNull [] content) {
+        ByteBuffer key = ByteBuffer.wrap(sha256(content)); // compares by content
+        Template template;
+        synchronized (this) {
+            template = templates.get(key);
+        }
+        if (template == null) {
+            CommentFileConfiguration config = new CommentFileConfiguration();
+            config.loadTemplate(content);
+            template = put(key, new Template(config, content.length));
+        }
+
+        CommentFileConfiguration copy = new CommentFileConfiguration();
+        copy.replaceWith(template.config);
+        return copy;
+    }
+
+    /**
+     * Loads a resource of the class loader, see {@link #load(byte[])}. The resource is read without URL caches,
+     * which would keep the jar open after a plugin is unloaded.
+     *
+     * @return a new configuration holding the resource, or null if there is no such resource
+     */
+    public @Nullable CommentFileConfiguration loadResource(@NotNull ClassLoader classLoader, @NotNull String name) throws IOException {
+        URL url = classLoader.getResource(name);
+        if (url == null) return null;
+
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        byte[] content;
+        try (InputStream in = connection.getInputStream()) {
+            content = ByteStreams.toByteArray(in);
+        }
+        return load(content);
+    }
+
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    public synchronized void clear() {
+        templates.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Caches the template unless another thread cached the same content first.
+     *
+     * @return the cached template
+     */
+    private synchronized @NotNull Template put(@NotNull ByteBuffer key, @NotNull Template template) {
+        Template existing = templates.get(key);
+        if (existing != null) return existing;
+
+        templates.put(key, template);
+        bytes += template.size;
+        Iterator<Template> eldest = templates.values().iterator();
+        while (templates.size() > 1 && (templates.size() > maxEntries || bytes > maxBytes)) {
+            bytes -= eldest.next().size;
+            eldest.remove();
+        }
+        return template;
+    }
+
+    private static byte @NotNull [] sha256(byte @NotNull [] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Template {
+
+        private final CommentFileConfiguration config;
+        private final long size;
+
+        private Template(@NotNull CommentFileConfiguration config, long size) {
+            this.config = config;
+            this.size = size;
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package ru.basher.configuration;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Deduplicates keys, short strings and boxed numbers across all configurations loaded with
+ * {@link CommentFileConfiguration#setInterning interning}, so that the same {@code enabled} key or {@code 64} value
+ * is held once however many configurations contain it.
+ * <p>
+ * Values are held weakly and dropped once no configuration uses them. Strings longer than
+ * {@value #MAX_STRING_LENGTH} chars are rarely repeated and are kept as they are. Integers in a small range
+ * come from a fixed table, which is cheaper than an interner lookup.
+ */
+final class ScalarInterner {
+
+    static final ScalarInterner SHARED = new ScalarInterner();
+
+    static final int MAX_STRING_LENGTH = 64;
+
+    private static final int SMALL_MIN = -128;
+    private static final int SMALL_MAX = 1024;
+    private static final Integer[] SMALL = new Integer[SMALL_MAX - SMALL_MIN];
+
+    static {
+        for (int i = 0; i < SMALL.length; i++) {
+            SMALL[i] = i + SMALL_MIN;
+        }
+    }
+
+    private final Interner<Object> interner = Interners.newWeakInterner();
+
+    private ScalarInterner() {
+    }
+
+    @NotNull String string(@NotNull String value) {
+        return value.length() > MAX_STRING_LENGTH ? value : (String) interner.intern(value);
+    }
+
+    /**
+     * @return an equal value that may be shared; booleans and other values are returned as they are
+     */
+    @NotNull Object scalar(@NotNull Object value) {
+        if (value instanceof String) return string((String) value);
+        if (value instanceof Integer) {
+            int i = (Integer) value;
+            return i >= SMALL_MIN && i < SMALL_MAX ? SMALL[i - SMALL_MIN] : interner.intern(value);
+        }
+        if (value instanceof Long || value instanceof Double || value instanceof Float) return interner.intern(value);
+        return value;
+    }
+
+}
@@ -0,0 +1,337 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.math.BigInteger;
+
+/**
+ * Resolves and reads plain scalars without regular expressions, with the same results as SnakeYAML's
+ * YAML 1.1 {@code Resolver} and {@code SafeConstructor}:
+ * <ul>
+ *     <li>ints in decimal, {@code 0x} hex, {@code 0b} binary, {@code 0} octal and {@code 1:30} sexagesimal form,
+ *     with {@code _} separators, load as the smallest of {@link Integer}, {@link Long} and {@link BigInteger} that holds them;</li>
+ *     <li>floats, including {@code .inf}, {@code .nan} and sexagesimal ones, load as {@link Double};</li>
+ *     <li>{@code yes/no}, {@code true/false} and {@code on/off} load as {@link Boolean}.</li>
+ * </ul>
+ * Sections do not hold nulls, so {@code ~}, {@code null} and empty values load as their text, as does everything else.
+ */
+public final class Scalars {
+
+    /**
+     * Longest scalar SnakeYAML resolves as a number.
+     */
+    private static final int NUMBER_LIMIT = 1024;
+
+    private Scalars() {
+    }
+
+    /**
+     * @return the value a plain scalar, one that is neither quoted nor tagged, loads as
+     */
+    public static @NotNull Object parse(@NotNull String value) {
+        return construct(resolve(value), value);
+    }
+
+    /**
+     * @return {@link Tag#BOOL}, {@link Tag#INT}, {@link Tag#FLOAT} or {@link Tag#NULL} for the plain scalars
+     * that resolve to them, {@link Tag#STR} for any other, including timestamps and merge keys, which load as text
+     */
+    static @NotNull Tag resolve(@NotNull String value) {
+        int length = value.length();
+        if (length == 0) return Tag.NULL;
+        switch (value.charAt(0)) {
+            case 'y':
+            case 'Y':
+                return isWord(value, "yes") ? Tag.BOOL : Tag.STR;
+            case 'n':
+            case 'N':
+                if (isWord(value, "no")) return Tag.BOOL;
+                return isWord(value, "null") ? Tag.NULL : Tag.STR;
+            case 't':
+            case 'T':
+                return isWord(value, "true") ? Tag.BOOL : Tag.STR;
+            case 'f':
+            case 'F':
+                return isWord(value, "false") ? Tag.BOOL : Tag.STR;
+            case 'o':
+            case 'O':
+                return isWord(value, "on") || isWord(value, "off") ? Tag.BOOL : Tag.STR;
+            case '~':
+                return length == 1 ? Tag.NULL : Tag.STR;
+            case '.':
+                return length <= NUMBER_LIMIT && isFloat(value) ? Tag.FLOAT : Tag.STR;
+            default:
+                if (length > NUMBER_LIMIT || !isNumberStart(value.charAt(0))) return Tag.STR;
+                if (isInt(value)) return Tag.INT;
+                return isFloat(value) ? Tag.FLOAT : Tag.STR;
+        }
+    }
+
+    /**
+     * Reads a scalar of a resolved or explicit tag.
+     *
+     * @throws NumberFormatException if the tag is {@code !!int} or {@code !!float} and the value is not such a number
+     */
+    static @NotNull Object construct(@NotNull Tag tag, @NotNull String value) {
+        if (Tag.INT.equals(tag)) return constructInt(value);
+        if (Tag.FLOAT.equals(tag)) return constructFloat(value);
+        if (Tag.BOOL.equals(tag)) return constructBool(value);
+        return value;
+    }
+
+    /**
+     * Matches one of the three spellings YAML 1.1 allows: {@code yes}, {@code Yes} and {@code YES}.
+     */
+    private static boolean isWord(@NotNull String value, @NotNull String lower) {
+        int length = lower.length();
+        if (value.length() != length) return false;
+        char first = value.charAt(0);
+        if (first != lower.charAt(0) && first != Character.toUpperCase(lower.charAt(0))) return false;
+        if (length == 1) return true;
+
+        boolean upper = first != lower.charAt(0) && value.charAt(1) == Character.toUpperCase(lower.charAt(1));
+        for (int i = 1; i < length; i++) {
+            char expected = upper ? Character.toUpperCase(lower.charAt(i)) : lower.charAt(i);
+            if (value.charAt(i) != expected) return false;
+        }
+        return true;
+    }
+
+    private static boolean isNumberStart(char c) {
+        return c == '-' || c == '+' || c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigit(char c, int radix) {
+        if (c >= '0' && c <= '9') return c - '0' < radix;
+        return radix == 16 && (c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F');
+    }
+
+    private static int signLength(@NotNull String value) {
+        char first = value.charAt(0);
+        return first == '-' || first == '+' ? 1 : 0;
+    }
+
+    /**
+     * @return the index of the first char from the start on that is neither a digit of the radix nor {@code _}
+     */
+    private static int skipDigits(@NotNull String value, int start, int radix) {
+        int i = start;
+        while (i < value.length() && (value.charAt(i) == '_' || isDigit(value.charAt(i), radix))) i++;
+        return i;
+    }
+
+    /**
+     * Matches digits of the radix and {@code _} up to the end, with at least one digit.
+     */
+    private static boolean isDigitsToEnd(@NotNull String value, int start, int radix) {
+        boolean digit = false;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '_') continue;
+            if (!isDigit(c, radix)) return false;
+            digit = true;
+        }
+        return digit;
+    }
+
+    /**
+     * Matches {@code (:[0-5]?[0-9])+} from the start on.
+     *
+     * @return the index after the last group, or -1 if there is none
+     */
+    private static int skipSexagesimal(@NotNull String value, int start) {
+        int i = start;
+        int length = value.length();
+        while (i < length && value.charAt(i) == ':') {
+            if (i + 1 >= length || !isDigit(value.charAt(i + 1), 10)) return -1;
+            char first = value.charAt(i + 1);
+            i += 2;
+            if (first <= '5' && i < length && isDigit(value.charAt(i), 10)) i++;
+        }
+        return i == start ? -1 : i;
+    }
+
+    /**
+     * Matches {@code [eE][-+]?[0-9]+} from the start to the end, or nothing at all.
+     */
+    private static boolean isExponentToEnd(@NotNull String value, int start) {
+        int length = value.length();
+        if (start == length) return true;
+        char c = value.charAt(start);
+        if (c != 'e' && c != 'E') return false;
+        int i = start + 1;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) i++;
+        if (i == length) return false;
+        for (; i < length; i++) {
+            if (!isDigit(value.charAt(i), 10)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isInt(@NotNull String value) {
+        int i = signLength(value);
+        int length = value.length();
+        if (i == length) return false;
+
+        char first = value.charAt(i);
+        if (first == '0') {
+            if (i + 1 == length) return true;
+            char next = value.charAt(i + 1);
+            if (next == 'b') return isDigitsToEnd(value, i + 2, 2);
+            if (next == 'x') return isDigitsToEnd(value, i + 2, 16);
+            return isDigitsToEnd(value, i + 1, 8);
+        }
+        if (!isDigit(first, 10)) return false;
+
+        int end = skipDigits(value, i + 1, 10);
+        return end == length || skipSexagesimal(value, end) == length;
+    }
+
+    private static boolean isFloat(@NotNull String value) {
+        int length = value.length();
+        if (length == 4 && value.charAt(0) == '.' && (isNaN(value, 1) || isInfinity(value, 1))) return true;
+
+        int i = signLength(value);
+        if (i == length) return false;
+        if (value.charAt(i) == '.') {
+            if (length - i == 4 && isInfinity(value, i + 1)) return true;
+            int end = skipDigits(value, i + 1, 10);
+            return end > i + 1 && isExponentToEnd(value, end);
+        }
+        if (!isDigit(value.charAt(i), 10)) return false;
+
+        int end = skipDigits(value, i + 1, 10);
+        if (end == length) return false;
+        switch (value.charAt(end)) {
+            case '.':
+                return isExponentToEnd(value, skipDigits(value, end + 1, 10));
+            case 'e':
+            case 'E':
+                return isExponentToEnd(value, end);
+            case ':':
+                end = skipSexagesimal(value, end);
+                return end != -1 && end < length && value.charAt(end) == '.' && skipDigits(value, end + 1, 10) == length;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isInfinity(@NotNull String value, int start) {
+        return value.startsWith("inf", start) || value.startsWith("Inf", start) || value.startsWith("INF", start);
+    }
+
+    private static boolean isNaN(@NotNull String value, int start) {
+        return value.startsWith("nan", start) || value.startsWith("NaN", start) || value.startsWith("NAN", start);
+    }
+
+    private static @NotNull Boolean constructBool(@NotNull String value) {
+        return value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("true") || value.equalsIgnoreCase("on");
+    }
+
+    private static @NotNull Number constructInt(@NotNull String value) {
+        if (value.indexOf('_') != -1) value = value.replace("_", "");
+        if (value.isEmpty()) throw new NumberFormatException("Empty int");
+
+        int start = signLength(value);
+        boolean negative = value.charAt(0) == '-';
+        int length = value.length();
+        if (length - start == 1 && value.charAt(start) == '0') return 0;
+
+        if (value.startsWith("0b", start)) return createNumber(value, start + 2, 2, negative);
+        if (value.startsWith("0x", start)) return createNumber(value, start + 2, 16, negative);
+        if (value.startsWith("0", start)) return createNumber(value, start + 1, 8, negative);
+        if (value.indexOf(':', start) == -1) return createNumber(value, start, 10, negative);
+
+        // wraps around like SnakeYAML does, which then fails on the negative result
+        String[] digits = value.substring(start).split(":");
+        int multiplier = 1;
+        int result = 0;
+        for (int i = digits.length - 1; i >= 0; i--) {
+            result = (int) (result + Long.parseLong(digits[i]) * multiplier);
+            multiplier *= 60;
+        }
+        return createNumber(String.valueOf(result), 0, 10, negative);
+    }
+
+    /**
+     * Reads the digits from the start to the end as the smallest type that holds them. As in SnakeYAML, the type
+     * is chosen by the count of digits first, so leading zeros may make a small value a {@link Long} or {@link BigInteger}.
+     */
+    private static @NotNull Number createNumber(@NotNull String value, int start, int radix, boolean negative) {
+        int digits = value.length() - start;
+        int intDigits = maxDigits(radix, false);
+        int longDigits = maxDigits(radix, true);
+        if (digits < longDigits && isDigitsToEnd(value, start, radix)) {
+            // too few digits to overflow a long
+            long magnitude = 0;
+            for (int i = start; i < value.length(); i++) {
+                magnitude = magnitude * radix + Character.digit(value.charAt(i), radix);
+            }
+            long result = negative ? -magnitude : magnitude;
+            if (digits <= intDigits && result == (int) result) return (int) result;
+            return result;
+        }
+
+        String number = negative ? "-" + value.substring(start) : value.substring(start);
+        if (digits > longDigits) return new BigInteger(number, radix);
+        if (digits > intDigits) return createLong(number, radix);
+        try {
+            return Integer.valueOf(number, radix);
+        } catch (NumberFormatException e) {
+            return createLong(number, radix);
+        }
+    }
+
+    private static @NotNull Number createLong(@NotNull String number, int radix) {
+        try {
+            return Long.valueOf(number, radix);
+        } catch (NumberFormatException e) {
+            return new BigInteger(number, radix);
+        }
+    }
+
+    private static int maxDigits(int radix, boolean isLong) {
+        switch (radix) {
+            case 2:
+                return isLong ? 63 : 31;
+            case 8:
+                return isLong ? 21 : 11;
+            case 16:
+                return isLong ? 16 : 8;
+            default:
+                return isLong ? 19 : 10;
+        }
+    }
+
+    private static @NotNull Double constructFloat(@NotNull String value) {
+        if (value.indexOf('_') != -1) value = value.replace("_", "");
+        if (value.isEmpty()) throw new NumberFormatException("Empty float");
+
+        int start = signLength(value);
+        boolean negative = value.charAt(0) == '-';
+        int length = value.length();
+        if (length - start == 4 && value.charAt(start) == '.') {
+            if (value.regionMatches(true, start + 1, "inf", 0, 3)) return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            if (value.regionMatches(true, start + 1, "nan", 0, 3)) return Double.NaN;
+        }
+
+        if (value.indexOf(':', start) != -1) {
+            String[] digits = value.substring(start).split(":");
+            int multiplier = 1;
+            double result = 0;
+            for (int i = digits.length - 1; i >= 0; i--) {
+                result += Double.parseDouble(digits[i]) * multiplier;
+                multiplier *= 60;
+            }
+            return (negative ? -1 : 1) * result;
+        }
+
+        // with a digit or dot after the sign, the sign reads the same as SnakeYAML's separate negation
+        if (start == length || start > 0 && !isDigit(value.charAt(start), 10) && value.charAt(start) != '.') {
+            return (negative ? -1 : 1) * Double.parseDouble(value.substring(start));
+        }
+        return Double.parseDouble(value);
+    }
+
+}
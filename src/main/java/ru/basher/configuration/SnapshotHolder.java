@@ -0,0 +1,56 @@
+package ru.basher.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * Publishes immutable snapshots of a {@link CommentFileConfiguration}.
+ * <p>
+ * A single writer owns the configuration: it mutates or reloads it and then calls {@link #publish()}.
+ * Any number of reader threads call {@link #get()} and read the returned snapshot without locks;
+ * a reader always sees one complete version, never a half-applied change.
+ */
+public class SnapshotHolder {
+
+    private final CommentFileConfiguration config;
+    private volatile CommentConfigurationSection current;
+
+    public SnapshotHolder(@NotNull CommentFileConfiguration config) {
+        this.config = config;
+        this.current = config.snapshot();
+    }
+
+    /**
+     * @return the latest published snapshot
+     */
+    public @NotNull CommentConfigurationSection get() {
+        return current;
+    }
+
+    /**
+     * Takes a snapshot of the current state of the configuration and makes it visible to readers.
+     * Must be called by the writer thread.
+     */
+    public @NotNull CommentConfigurationSection publish() {
+        CommentConfigurationSection snapshot = config.snapshot();
+        current = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Replaces the content of the configuration with the file and publishes the result: keys that are no longer
+     * in the file are dropped, unlike with {@link CommentFileConfiguration#load(File)}. Must be called by the writer thread.
+     */
+    public @NotNull CommentConfigurationSection reload(@NotNull File file) {
+        CommentFileConfiguration fresh = config.newWithSameSettings();
+        fresh.load(file);
+        config.replaceWith(fresh);
+        return publish();
+    }
+
+    public @NotNull CommentFileConfiguration getConfig() {
+        return config;
+    }
+
+}
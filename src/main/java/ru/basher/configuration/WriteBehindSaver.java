@@ -0,0 +1,210 @@
+package ru.basher.configuration;
+
+import lombok.Setter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Saves configurations in the background, so callers never block on disk I/O.
+ * <p>
+ * Save requests for the same file are coalesced: the file is written once the window after the first request
+ * passes, with whatever the configuration holds at that moment. Writes of one file never overlap and happen
+ * in request order; different files are written in parallel by a fixed number of writer threads.
+ * Every write goes through a synced temporary file that is atomically moved into place, and is skipped
+ * when the file already holds the same content (see {@link CommentFileConfiguration#save(File)}).
+ * <p>
+ * The content is serialized on the capture executor, which has to run tasks on the thread that owns
+ * the configurations (e.g. the server main thread) unless they are concurrent; only the bytes are handed
+ * to the writer threads.
+ */
+public class WriteBehindSaver implements Closeable {
+
+    private final long windowMillis;
+    private final Executor captureExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService writers;
+
+    private final Map<File, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<File, CompletableFuture<Boolean>> lastWrites = new ConcurrentHashMap<>();
+    private final Set<Pending> active = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean closed;
+
+    @Setter
+    private volatile @NotNull Consumer<Throwable> errorHandler = e -> {};
+
+    /**
+     * Coalesces saves within 500 ms and writes with a single thread.
+     *
+     * @param captureExecutor serializes the content on the thread that owns the configurations
+     */
+    public WriteBehindSaver(@NotNull Executor captureExecutor) {
+        this(500, 1, captureExecutor);
+    }
+
+    public WriteBehindSaver(long windowMillis, int writerThreads, @NotNull Executor captureExecutor) {
+        this.windowMillis = windowMillis;
+        this.captureExecutor = captureExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BasherConfiguration-save-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong threads = new AtomicLong();
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "BasherConfiguration-save-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests the configuration to be saved to the file.
+     *
+     * @return completes with whether the file was written, once the coalesced write is done
+     */
+    public @NotNull CompletableFuture<Boolean> save(@NotNull File file, @NotNull CommentFileConfiguration config) {
+        if (closed) throw new IllegalStateException("Saver is closed");
+        File key = file.getAbsoluteFile();
+        Pending result = pending.compute(key, (k, existing) -> {
+            if (existing != null) {
+                existing.config = config;
+                return existing;
+            }
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            Pending created = new Pending(k, config, sequence.incrementAndGet(), future, lastWrites.put(k, future));
+            active.add(created);
+            created.timer = scheduler.schedule(() -> start(created), windowMillis, TimeUnit.MILLISECONDS);
+            return created;
+        });
+        return result.future;
+    }
+
+    /**
+     * Writes every requested save now and waits until all writes are done.
+     * Must be called on the capture executor thread, as content that was not serialized yet is serialized here.
+     */
+    public void flush() {
+        for (;;) {
+            List<Pending> all = new ArrayList<>(active);
+            if (all.isEmpty()) return;
+            all.sort(Comparator.comparingLong(p -> p.sequence));
+
+            for (Pending p : all) {
+                ScheduledFuture<?> timer = p.timer;
+                if (timer != null) timer.cancel(false);
+                pending.remove(p.file, p);
+                if (p.previous != null) awaitQuietly(p.previous);
+                p.capture();
+            }
+            for (Pending p : all) {
+                awaitQuietly(p.future);
+            }
+        }
+    }
+
+    /**
+     * Flushes pending saves and stops the background threads. Further save requests are rejected.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+        scheduler.shutdownNow();
+        writers.shutdown();
+        try {
+            writers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start(@NotNull Pending p) {
+        pending.remove(p.file, p);
+        if (p.previous == null) {
+            captureExecutor.execute(p::capture);
+        } else {
+            p.previous.whenComplete((result, error) -> captureExecutor.execute(p::capture));
+        }
+    }
+
+    private static void awaitQuietly(@NotNull CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (CompletionException | CancellationException ignored) {
+            // reported through the error handler
+        }
+    }
+
+    private final class Pending {
+
+        private final File file;
+        private final long sequence;
+        private final CompletableFuture<Boolean> future;
+        private final @Nullable CompletableFuture<Boolean> previous;
+        private final AtomicBoolean captured = new AtomicBoolean();
+        private volatile CommentFileConfiguration config;
+        private volatile @Nullable ScheduledFuture<?> timer;
+
+        private Pending(@NotNull File file, @NotNull CommentFileConfiguration config, long sequence,
+                        @NotNull CompletableFuture<Boolean> future, @Nullable CompletableFuture<Boolean> previous) {
+            this.file = file;
+            this.config = config;
+            this.sequence = sequence;
+            this.future = future;
+            this.previous = previous;
+        }
+
+        /**
+         * Serializes the content on the calling thread and hands it to a writer thread. Runs at most once.
+         */
+        private void capture() {
+            if (!captured.compareAndSet(false, true)) return;
+            pending.remove(file, this);
+
+            CommentFileConfiguration current = config;
+            try {
+                if (!current.needsSave(file)) {
+                    complete(false, null);
+                    return;
+                }
+                long modifications = current.getModificationCount();
+                byte[] content = current.captureContent();
+                writers.execute(() -> {
+                    try {
+                        complete(current.writeIfChanged(file, content, modifications), null);
+                    } catch (Throwable e) {
+                        complete(false, e);
+                    }
+                });
+            } catch (Throwable e) {
+                complete(false, e);
+            }
+        }
+
+        private void complete(boolean written, @Nullable Throwable error) {
+            active.remove(this);
+            lastWrites.remove(file, future);
+            if (error == null) {
+                future.complete(written);
+            } else {
+                errorHandler.accept(error);
+                future.completeExceptionally(error);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,260 @@
+package ru.basher.configuration.binding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.CommentConfigurationSection;
+import ru.basher.configuration.CommentMemorySection;
+import ru.basher.configuration.ConfigPath;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Typed view of a configuration section.
+ * <p>
+ * Every getter of a bound interface or field of a bound class maps to a path: the {@link Key} value,
+ * or the member name in kebab-case ({@code getMaxPlayers()}, {@code isEnabled()} and {@code maxPlayers}
+ * become {@code max-players} and {@code enabled}). Paths are compiled once at bind time and the converted
+ * values are kept in fields of their own type, so a bound read costs a field read instead of a path walk,
+ * type check and unboxing. Missing or mistyped values read as {@code 0}/{@code false} for primitives and
+ * {@code null} otherwise; lists are read-only copies.
+ * <p>
+ * Fields are refreshed when the modification count of the configuration changes.
+ * A bound interface, which must be public, is implemented by a generated class whose getters check the count
+ * before the field read, so the instance may be kept and shared.
+ * A bound class is a plain object with plain field reads; its fields are refreshed on {@link #get()} and {@link #refresh()}.
+ * A binding stays attached to the section object it was created for; bind to the root if that section may be replaced.
+ */
+public final class Binding<T> {
+
+    private static final ClassValue<Implementation> IMPLEMENTATIONS = new ClassValue<Implementation>() {
+        @Override
+        protected Implementation computeValue(Class<?> type) {
+            return Implementation.generate(type);
+        }
+    };
+
+    private final CommentConfigurationSection source;
+    private final @Nullable CommentMemorySection tracked;
+    private final Class<T> type;
+    private final Slot[] slots;
+    private final MethodHandle[] setters;
+    private final T instance;
+
+    private volatile long seenModifications = -1;
+
+    private Binding(@NotNull CommentConfigurationSection source, @NotNull Class<T> type, @NotNull Slot[] slots,
+                    @NotNull MethodHandle[] setters, @NotNull T instance) {
+        this.source = source;
+        this.tracked = source instanceof CommentMemorySection ? (CommentMemorySection) source : null;
+        this.type = type;
+        this.slots = slots;
+        this.setters = setters;
+        this.instance = instance;
+    }
+
+    public static <T> @NotNull Binding<T> bind(@NotNull CommentConfigurationSection section, @NotNull Class<T> type) {
+        Binding<T> binding = type.isInterface() ? bindInterface(section, type) : bindClass(section, type);
+        binding.refresh();
+        return binding;
+    }
+
+    /**
+     * @return the bound implementation or object, refreshed first if the configuration changed
+     */
+    public @NotNull T get() {
+        refreshIfStale();
+        return instance;
+    }
+
+    public @NotNull CommentConfigurationSection getSection() {
+        return source;
+    }
+
+    public boolean isStale() {
+        return tracked != null && tracked.getModificationCount() != seenModifications;
+    }
+
+    /**
+     * Re-reads every slot from the section.
+     */
+    public synchronized void refresh() {
+        long modifications = tracked == null ? 0 : tracked.getModificationCount();
+        for (int i = 0; i < slots.length; i++) {
+            try {
+                setters[i].invoke(instance, slots[i].read(source));
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unable to set bound field " + slots[i].getPath(), e);
+            }
+        }
+        seenModifications = modifications;
+    }
+
+    /**
+     * Refreshes the binding if the configuration changed. Called by the getters of bound interfaces before every read.
+     */
+    public void refreshIfStale() {
+        if (isStale()) refresh();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return type.getSimpleName() + "@" + source.getCurrentPath();
+    }
+
+    private static <T> @NotNull Binding<T> bindInterface(@NotNull CommentConfigurationSection section, @NotNull Class<T> type) {
+        Implementation implementation = IMPLEMENTATIONS.get(type);
+        try {
+            T instance = type.cast(implementation.constructor.invoke());
+            Binding<T> binding = new Binding<>(section, type, implementation.slots, implementation.setters, instance);
+            implementation.bindingSetter.invoke(instance, binding);
+            return binding;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Unable to bind " + type.getName(), e);
+        }
+    }
+
+    private static <T> @NotNull Binding<T> bindClass(@NotNull CommentConfigurationSection section, @NotNull Class<T> type) {
+        List<Slot> slots = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)) continue;
+                    if (field.isSynthetic()) continue;
+
+                    field.setAccessible(true);
+                    setters.add(lookup.unreflectSetter(field));
+                    slots.add(new Slot(pathOf(field.getAnnotation(Key.class), field.getName()), field.getType()));
+                }
+            }
+
+            Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            T instance = constructor.newInstance();
+            return new Binding<>(section, type, slots.toArray(new Slot[0]), setters.toArray(new MethodHandle[0]), instance);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unable to bind " + type.getName(), e);
+        }
+    }
+
+    private static @NotNull ConfigPath pathOf(@Nullable Key key, @NotNull String memberName) {
+        return ConfigPath.of(key != null ? key.value() : kebabCase(memberName));
+    }
+
+    private static @NotNull String getterName(@NotNull String methodName) {
+        if (methodName.length() > 3 && methodName.startsWith("get") && Character.isUpperCase(methodName.charAt(3))) {
+            return methodName.substring(3);
+        }
+        if (methodName.length() > 2 && methodName.startsWith("is") && Character.isUpperCase(methodName.charAt(2))) {
+            return methodName.substring(2);
+        }
+        return methodName;
+    }
+
+    private static @NotNull String kebabCase(@NotNull String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) builder.append('-');
+                builder.append(Character.toLowerCase(c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Generated implementation of a bound interface, shared by all bindings of that interface.
+     */
+    private static final class Implementation {
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        private final Slot[] slots;
+        private final MethodHandle constructor;
+        private final MethodHandle bindingSetter;
+        private final MethodHandle[] setters;
+
+        private Implementation(@NotNull Slot[] slots, @NotNull MethodHandle constructor,
+                               @NotNull MethodHandle bindingSetter, @NotNull MethodHandle[] setters) {
+            this.slots = slots;
+            this.constructor = constructor;
+            this.bindingSetter = bindingSetter;
+            this.setters = setters;
+        }
+
+        private static @NotNull Implementation generate(@NotNull Class<?> type) {
+            if (!Modifier.isPublic(type.getModifiers())) {
+                throw new IllegalArgumentException("Bound interfaces must be public: " + type.getName());
+            }
+            List<Method> methods = new ArrayList<>();
+            List<Slot> slots = new ArrayList<>();
+            for (Method method : type.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers())) continue;
+                if (method.getParameterCount() == 0 && (method.getName().equals("toString") || method.getName().equals("hashCode"))) continue;
+                if (method.isDefault()) {
+                    throw new IllegalArgumentException("Default methods are not supported by bindings: " + method);
+                }
+                if (method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+                    throw new IllegalArgumentException("Bound methods must be getters: " + method);
+                }
+                methods.add(method);
+                slots.add(new Slot(pathOf(method.getAnnotation(Key.class), getterName(method.getName())), method.getReturnType()));
+            }
+
+            String name = type.getName() + "$Bound" + COUNTER.incrementAndGet();
+            byte[] bytes = ImplementationWriter.write(name, type, methods);
+            Class<?> generated = new GeneratedLoader(type.getClassLoader()).define(name, bytes);
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle[] setters = new MethodHandle[methods.size()];
+                for (int i = 0; i < setters.length; i++) {
+                    setters[i] = lookup.findSetter(generated, ImplementationWriter.fieldName(i), methods.get(i).getReturnType());
+                }
+                return new Implementation(slots.toArray(new Slot[0]),
+                        lookup.findConstructor(generated, MethodType.methodType(void.class)),
+                        lookup.findSetter(generated, ImplementationWriter.BINDING_FIELD, Binding.class),
+                        setters);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to link the implementation of " + type.getName(), e);
+            }
+        }
+
+    }
+
+    /**
+     * Defines a generated implementation next to its interface, resolving {@link Binding} to this library's copy
+     * even when the interface's loader cannot see it.
+     */
+    private static final class GeneratedLoader extends ClassLoader {
+
+        private GeneratedLoader(@Nullable ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(Binding.class.getName())) return Binding.class;
+            return super.loadClass(name, resolve);
+        }
+
+        private @NotNull Class<?> define(@NotNull String name, byte @NotNull [] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+    }
+
+}
@@ -0,0 +1,221 @@
+package ru.basher.configuration.binding;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the class file of a bound interface implementation: one public field per getter, holding the converted
+ * value with the getter's own return type, and getters that call {@link Binding#refreshIfStale()} and return the field.
+ * Nothing branches, so the class needs no stack map frames.
+ */
+final class ImplementationWriter {
+
+    static final String BINDING_FIELD = "binding";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int GETFIELD = 0xb4;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int IRETURN = 0xac;
+    private static final int LRETURN = 0xad;
+    private static final int FRETURN = 0xae;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+
+    private static final String BINDING = internalName(Binding.class);
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> constants = new HashMap<>();
+    private int poolSize = 1;
+
+    private ImplementationWriter() {
+    }
+
+    static @NotNull String fieldName(int index) {
+        return "v" + index;
+    }
+
+    /**
+     * @param methods getters of the interface, the field of each is {@link #fieldName(int) named} after its index
+     */
+    static byte @NotNull [] write(@NotNull String className, @NotNull Class<?> type, @NotNull List<Method> methods) {
+        try {
+            return new ImplementationWriter().writeClass(className.replace('.', '/'), type, methods);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte @NotNull [] writeClass(@NotNull String name, @NotNull Class<?> type, @NotNull List<Method> methods) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        body.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        body.writeShort(classRef(name));
+        body.writeShort(classRef("java/lang/Object"));
+        body.writeShort(1);
+        body.writeShort(classRef(internalName(type)));
+
+        body.writeShort(methods.size() + 1);
+        writeField(body, BINDING_FIELD, "L" + BINDING + ";");
+        for (int i = 0; i < methods.size(); i++) {
+            writeField(body, fieldName(i), descriptor(methods.get(i).getReturnType()));
+        }
+
+        body.writeShort(methods.size() + 2);
+        writeMethod(body, "<init>", "()V", 1, new byte[]{
+                ALOAD_0,
+                (byte) INVOKESPECIAL, 0, 0,
+                (byte) RETURN
+        }, 2, methodRef("java/lang/Object", "<init>", "()V"));
+        writeMethod(body, "toString", "()Ljava/lang/String;", 1, new byte[]{
+                ALOAD_0,
+                (byte) GETFIELD, 0, 0,
+                (byte) INVOKEVIRTUAL, 0, 0,
+                (byte) ARETURN
+        }, 2, fieldRef(name, BINDING_FIELD, "L" + BINDING + ";"), 5, methodRef(BINDING, "toString", "()Ljava/lang/String;"));
+        for (int i = 0; i < methods.size(); i++) {
+            Class<?> returnType = methods.get(i).getReturnType();
+            String descriptor = descriptor(returnType);
+            boolean wide = returnType == long.class || returnType == double.class;
+            writeMethod(body, methods.get(i).getName(), "()" + descriptor, wide ? 2 : 1, new byte[]{
+                    ALOAD_0,
+                    (byte) GETFIELD, 0, 0,
+                    (byte) INVOKEVIRTUAL, 0, 0,
+                    ALOAD_0,
+                    (byte) GETFIELD, 0, 0,
+                    (byte) returnOpcode(returnType)
+            }, 2, fieldRef(name, BINDING_FIELD, "L" + BINDING + ";"),
+                    5, methodRef(BINDING, "refreshIfStale", "()V"),
+                    9, fieldRef(name, fieldName(i), descriptor));
+        }
+        body.writeShort(0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream file = new DataOutputStream(out);
+        file.writeInt(0xCAFEBABE);
+        file.writeShort(0);
+        file.writeShort(52);
+        file.writeShort(poolSize);
+        poolBytes.writeTo(file);
+        bodyBytes.writeTo(file);
+        return out.toByteArray();
+    }
+
+    private void writeField(@NotNull DataOutputStream body, @NotNull String name, @NotNull String descriptor) throws IOException {
+        body.writeShort(ACC_PUBLIC);
+        body.writeShort(utf8(name));
+        body.writeShort(utf8(descriptor));
+        body.writeShort(0);
+    }
+
+    /**
+     * @param patches pairs of a code offset and the constant pool index written at it
+     */
+    private void writeMethod(@NotNull DataOutputStream body, @NotNull String name, @NotNull String descriptor,
+                             int maxStack, byte @NotNull [] code, int @NotNull ... patches) throws IOException {
+        for (int i = 0; i < patches.length; i += 2) {
+            code[patches[i]] = (byte) (patches[i + 1] >> 8);
+            code[patches[i] + 1] = (byte) patches[i + 1];
+        }
+        body.writeShort(ACC_PUBLIC);
+        body.writeShort(utf8(name));
+        body.writeShort(utf8(descriptor));
+        body.writeShort(1);
+        body.writeShort(utf8("Code"));
+        body.writeInt(12 + code.length);
+        body.writeShort(maxStack);
+        body.writeShort(1);
+        body.writeInt(code.length);
+        body.write(code);
+        body.writeShort(0);
+        body.writeShort(0);
+    }
+
+    private int utf8(@NotNull String value) throws IOException {
+        Integer index = constants.get("U" + value);
+        if (index != null) return index;
+        pool.writeByte(1);
+        pool.writeUTF(value);
+        return register("U" + value, 1);
+    }
+
+    private int classRef(@NotNull String internalName) throws IOException {
+        Integer index = constants.get("C" + internalName);
+        if (index != null) return index;
+        int name = utf8(internalName);
+        pool.writeByte(7);
+        pool.writeShort(name);
+        return register("C" + internalName, 1);
+    }
+
+    private int fieldRef(@NotNull String owner, @NotNull String name, @NotNull String descriptor) throws IOException {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    private int methodRef(@NotNull String owner, @NotNull String name, @NotNull String descriptor) throws IOException {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, @NotNull String owner, @NotNull String name, @NotNull String descriptor) throws IOException {
+        String key = tag + owner + "." + name + ":" + descriptor;
+        Integer index = constants.get(key);
+        if (index != null) return index;
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        pool.writeByte(12);
+        pool.writeShort(nameIndex);
+        pool.writeShort(descriptorIndex);
+        int nameAndType = register("N" + name + ":" + descriptor + "#" + poolSize, 1);
+        pool.writeByte(tag);
+        pool.writeShort(ownerIndex);
+        pool.writeShort(nameAndType);
+        return register(key, 1);
+    }
+
+    private int register(@NotNull String key, int slots) {
+        int index = poolSize;
+        constants.put(key, index);
+        poolSize += slots;
+        return index;
+    }
+
+    private static int returnOpcode(@NotNull Class<?> type) {
+        if (type == long.class) return LRETURN;
+        if (type == float.class) return FRETURN;
+        if (type == double.class) return DRETURN;
+        return type.isPrimitive() ? IRETURN : ARETURN;
+    }
+
+    private static @NotNull String internalName(@NotNull Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static @NotNull String descriptor(@NotNull Class<?> type) {
+        if (type == int.class) return "I";
+        if (type == long.class) return "J";
+        if (type == double.class) return "D";
+        if (type == float.class) return "F";
+        if (type == boolean.class) return "Z";
+        if (type == byte.class) return "B";
+        if (type == short.class) return "S";
+        if (type == char.class) return "C";
+        if (type.isArray()) return internalName(type);
+        return "L" + internalName(type) + ";";
+    }
+
+}
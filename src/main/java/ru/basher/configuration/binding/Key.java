@@ -0,0 +1,18 @@
+package ru.basher.configuration.binding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Explicit configuration path of a bound getter or field, relative to the bound section.
+ * Without it the path is derived from the member name, see {@link Binding}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.FIELD})
+public @interface Key {
+
+    String value();
+
+}
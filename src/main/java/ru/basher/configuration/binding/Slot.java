@@ -0,0 +1,75 @@
+package ru.basher.configuration.binding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.CommentConfigurationSection;
+import ru.basher.configuration.ConfigPath;
+import ru.basher.configuration.list.PrimitiveLists;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One bound member: its path, resolved once at bind time, and the conversion for its declared type.
+ */
+final class Slot {
+
+    private final ConfigPath path;
+    private final Class<?> type;
+
+    Slot(@NotNull ConfigPath path, @NotNull Class<?> type) {
+        this.path = path;
+        this.type = type;
+    }
+
+    @Nullable Object read(@NotNull CommentConfigurationSection source) {
+        return convert(source.get(path), type);
+    }
+
+    @NotNull ConfigPath getPath() {
+        return path;
+    }
+
+    private static @Nullable Object convert(@Nullable Object value, @NotNull Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return value instanceof Number ? ((Number) value).intValue() : type.isPrimitive() ? 0 : null;
+        }
+        if (type == long.class || type == Long.class) {
+            return value instanceof Number ? ((Number) value).longValue() : type.isPrimitive() ? 0L : null;
+        }
+        if (type == double.class || type == Double.class) {
+            return value instanceof Number ? ((Number) value).doubleValue() : type.isPrimitive() ? 0D : null;
+        }
+        if (type == float.class || type == Float.class) {
+            return value instanceof Number ? ((Number) value).floatValue() : type.isPrimitive() ? 0F : null;
+        }
+        if (type == short.class || type == Short.class) {
+            return value instanceof Number ? ((Number) value).shortValue() : type.isPrimitive() ? (short) 0 : null;
+        }
+        if (type == byte.class || type == Byte.class) {
+            return value instanceof Number ? ((Number) value).byteValue() : type.isPrimitive() ? (byte) 0 : null;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return value instanceof Boolean ? value : type.isPrimitive() ? false : null;
+        }
+        if (type == char.class || type == Character.class) {
+            if (value instanceof Character) return value;
+            if (value instanceof String && ((String) value).length() == 1) return ((String) value).charAt(0);
+            return type.isPrimitive() ? '\0' : null;
+        }
+        if (type == List.class) {
+            return value instanceof List ? readOnlyCopy((List<?>) value) : null;
+        }
+        return type.isInstance(value) ? value : null;
+    }
+
+    /**
+     * Read-only like the lists of {@code getList}, and detached from the stored list so that it cannot be changed through the binding.
+     */
+    private static @NotNull List<?> readOnlyCopy(@NotNull List<?> list) {
+        List<?> primitive = PrimitiveLists.readOnlyCopy(list);
+        return primitive != null ? primitive : Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+}
@@ -0,0 +1,126 @@
+package ru.basher.configuration.diff;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.CommentConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Structural difference between two configuration trees.
+ * <p>
+ * Computed in a single pass over both trees without copying their maps. Subtrees that are the same object
+ * on both sides are skipped entirely, and path strings are only built for entries that are reported
+ * or sections that are descended into, so unchanged keys cost a map lookup and an equality check.
+ */
+public final class ConfigDiff {
+
+    private final List<DiffEntry> entries;
+
+    private ConfigDiff(@NotNull List<DiffEntry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public static @NotNull ConfigDiff compute(@NotNull CommentConfigurationSection oldTree, @NotNull CommentConfigurationSection newTree) {
+        Walker walker = new Walker();
+        walker.walk("", oldTree, newTree);
+        return new ConfigDiff(walker.entries);
+    }
+
+    public @NotNull List<DiffEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the entries that affect the path prefix, see {@link DiffEntry#affects(String)}
+     */
+    public @NotNull List<DiffEntry> getEntries(@NotNull String prefix) {
+        if (prefix.isEmpty()) return entries;
+        List<DiffEntry> result = new ArrayList<>();
+        for (DiffEntry entry : entries) {
+            if (entry.affects(prefix)) result.add(entry);
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return entries.toString();
+    }
+
+    private static final class Walker {
+
+        private final List<DiffEntry> entries = new ArrayList<>();
+
+        private void walk(@NotNull String path, @NotNull CommentConfigurationSection oldSection, @NotNull CommentConfigurationSection newSection) {
+            Map<String, Object> oldMap = oldSection.getMap();
+            Map<String, Object> newMap = newSection.getMap();
+
+            int kept = 0;
+            for (Map.Entry<String, Object> entry : oldMap.entrySet()) {
+                String key = entry.getKey();
+                Object oldValue = entry.getValue();
+                Object newValue = newMap.get(key);
+                if (newValue == null) {
+                    String childPath = childPath(path, key);
+                    entries.add(new DiffEntry(DiffEntry.Type.REMOVED, childPath, oldValue, null, oldSection.getComments(key), null));
+                    continue;
+                }
+                kept++;
+                if (oldValue == newValue) {
+                    compareComments(path, key, oldSection, newSection);
+                    continue;
+                }
+
+                if (oldValue instanceof CommentConfigurationSection && newValue instanceof CommentConfigurationSection) {
+                    compareComments(path, key, oldSection, newSection);
+                    walk(childPath(path, key), (CommentConfigurationSection) oldValue, (CommentConfigurationSection) newValue);
+                } else if (!Objects.equals(oldValue, newValue)) {
+                    entries.add(new DiffEntry(DiffEntry.Type.CHANGED, childPath(path, key), oldValue, newValue,
+                            oldSection.getComments(key), newSection.getComments(key)));
+                } else {
+                    compareComments(path, key, oldSection, newSection);
+                }
+            }
+
+            // every new key matched an old one, nothing was added
+            if (kept == newMap.size()) return;
+            for (Map.Entry<String, Object> entry : newMap.entrySet()) {
+                String key = entry.getKey();
+                if (oldMap.containsKey(key)) continue;
+                entries.add(new DiffEntry(DiffEntry.Type.ADDED, childPath(path, key), null, entry.getValue(), null, newSection.getComments(key)));
+            }
+        }
+
+        private void compareComments(@NotNull String path, @NotNull String key,
+                                     @NotNull CommentConfigurationSection oldSection, @NotNull CommentConfigurationSection newSection) {
+            List<String> before = oldSection.getComments(key);
+            List<String> after = newSection.getComments(key);
+            if (before == after || sameComments(before, after)) return;
+            entries.add(new DiffEntry(DiffEntry.Type.COMMENTS, childPath(path, key), null, null, before, after));
+        }
+
+        private static boolean sameComments(@Nullable List<String> before, @Nullable List<String> after) {
+            if (before == null || before.isEmpty()) return after == null || after.isEmpty();
+            return before.equals(after);
+        }
+
+        private static @NotNull String childPath(@NotNull String path, @NotNull String key) {
+            return path.isEmpty() ? key : path + '.' + key;
+        }
+
+    }
+
+}
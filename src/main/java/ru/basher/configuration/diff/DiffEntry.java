@@ -0,0 +1,79 @@
+package ru.basher.configuration.diff;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * One difference between two configuration trees.
+ * <p>
+ * An added or removed section is reported once, as a single entry holding the whole section.
+ * Comments are compared per entry, through {@link ru.basher.configuration.CommentConfigurationSection#getComments(String)}.
+ */
+@Getter
+public final class DiffEntry {
+
+    private final Type type;
+    private final String path;
+    private final @Nullable Object oldValue;
+    private final @Nullable Object newValue;
+    private final @Nullable List<String> oldComments;
+    private final @Nullable List<String> newComments;
+
+    DiffEntry(@NotNull Type type, @NotNull String path, @Nullable Object oldValue, @Nullable Object newValue,
+              @Nullable List<String> oldComments, @Nullable List<String> newComments) {
+        this.type = type;
+        this.path = path;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.oldComments = oldComments;
+        this.newComments = newComments;
+    }
+
+    /**
+     * @return whether this entry touches anything under the prefix: the path equals it, lies under it,
+     * or is an ancestor of it (a replaced or removed section). An empty prefix matches everything
+     */
+    public boolean affects(@NotNull String prefix) {
+        if (prefix.isEmpty() || path.equals(prefix)) return true;
+        return isUnder(path, prefix) || isUnder(prefix, path);
+    }
+
+    public boolean isCommentChanged() {
+        return oldComments == null ? newComments != null : !oldComments.equals(newComments);
+    }
+
+    private static boolean isUnder(@NotNull String path, @NotNull String ancestor) {
+        return path.length() > ancestor.length() && path.startsWith(ancestor) && path.charAt(ancestor.length()) == '.';
+    }
+
+    @Override
+    public @NotNull String toString() {
+        switch (type) {
+            case ADDED:
+                return "+ " + path + ": " + newValue;
+            case REMOVED:
+                return "- " + path + ": " + oldValue;
+            case CHANGED:
+                return "~ " + path + ": " + oldValue + " -> " + newValue;
+            default:
+                return "# " + path + ": " + oldComments + " -> " + newComments;
+        }
+    }
+
+    public enum Type {
+        ADDED,
+        REMOVED,
+        /**
+         * The value differs; comments may differ as well.
+         */
+        CHANGED,
+        /**
+         * Only the comments of the key differ.
+         */
+        COMMENTS
+    }
+
+}
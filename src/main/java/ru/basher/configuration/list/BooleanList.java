@@ -0,0 +1,121 @@
+package ru.basher.configuration.list;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * {@code List<Boolean>} backed by a {@code boolean[]}. Homogeneous boolean sequences are loaded into it,
+ * so they take no boxed elements and can be read through {@link #getBoolean(int)} or {@link #toBooleanArray()}
+ * without copying. Elements of other types inflate it into boxed storage, see {@link PrimitiveList}.
+ */
+public final class BooleanList extends PrimitiveList<Boolean> {
+
+    private static final boolean[] EMPTY = new boolean[0];
+
+    private boolean[] elements;
+
+    public BooleanList() {
+        this(EMPTY, 0, false);
+    }
+
+    public BooleanList(int capacity) {
+        this(new boolean[capacity], 0, false);
+    }
+
+    private BooleanList(boolean @NotNull [] elements, int size, boolean readOnly) {
+        super(size, readOnly);
+        this.elements = elements;
+    }
+
+    /**
+     * Wraps the array without copying. The caller must not modify it afterwards.
+     */
+    public static @NotNull BooleanList wrap(boolean @NotNull ... elements) {
+        return new BooleanList(elements, elements.length, false);
+    }
+
+    public static @NotNull BooleanList readOnlyCopyOf(@NotNull BooleanList list) {
+        list.checkPacked();
+        return new BooleanList(Arrays.copyOf(list.elements, list.size), list.size, true);
+    }
+
+    public static @NotNull BooleanList copyOf(@NotNull Collection<Boolean> values) {
+        BooleanList list = new BooleanList(values.size());
+        for (Boolean value : values) {
+            list.elements[list.size++] = value;
+        }
+        return list;
+    }
+
+    public boolean getBoolean(int index) {
+        if (!isPacked()) return get(index);
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public boolean setBoolean(int index, boolean value) {
+        if (!isPacked()) return set(index, value);
+        checkWritable();
+        checkIndex(index);
+        boolean old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    public void addBoolean(boolean value) {
+        if (!isPacked()) {
+            add(value);
+            return;
+        }
+        checkWritable();
+        grow();
+        elements[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * Returns the backing array, trimmed to the list size. No copy is made when the list is already tight,
+     * which is always the case for lists created by the loader. The returned array must not be modified.
+     *
+     * @throws IllegalStateException if the list is no longer {@link #isPacked() packed}
+     */
+    public boolean @NotNull [] toBooleanArray() {
+        checkPacked();
+        if (elements.length != size) elements = Arrays.copyOf(elements, size);
+        return elements;
+    }
+
+    @Override
+    int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    void move(int from, int to, int length) {
+        System.arraycopy(elements, from, elements, to, length);
+    }
+
+    @Override
+    @NotNull Boolean box(int index) {
+        return elements[index];
+    }
+
+    @Override
+    boolean accepts(@Nullable Object element) {
+        return element instanceof Boolean;
+    }
+
+    @Override
+    void store(int index, @NotNull Boolean element) {
+        elements[index] = element;
+    }
+
+}
@@ -0,0 +1,121 @@
+package ru.basher.configuration.list;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * {@code List<Double>} backed by a {@code double[]}. Homogeneous double sequences are loaded into it,
+ * so they take no boxed elements and can be read through {@link #getDouble(int)} or {@link #toDoubleArray()}
+ * without copying. Elements of other types inflate it into boxed storage, see {@link PrimitiveList}.
+ */
+public final class DoubleList extends PrimitiveList<Double> {
+
+    private static final double[] EMPTY = new double[0];
+
+    private double[] elements;
+
+    public DoubleList() {
+        this(EMPTY, 0, false);
+    }
+
+    public DoubleList(int capacity) {
+        this(new double[capacity], 0, false);
+    }
+
+    private DoubleList(double @NotNull [] elements, int size, boolean readOnly) {
+        super(size, readOnly);
+        this.elements = elements;
+    }
+
+    /**
+     * Wraps the array without copying. The caller must not modify it afterwards.
+     */
+    public static @NotNull DoubleList wrap(double @NotNull ... elements) {
+        return new DoubleList(elements, elements.length, false);
+    }
+
+    public static @NotNull DoubleList readOnlyCopyOf(@NotNull DoubleList list) {
+        list.checkPacked();
+        return new DoubleList(Arrays.copyOf(list.elements, list.size), list.size, true);
+    }
+
+    public static @NotNull DoubleList copyOf(@NotNull Collection<? extends Number> numbers) {
+        DoubleList list = new DoubleList(numbers.size());
+        for (Number number : numbers) {
+            list.elements[list.size++] = number.doubleValue();
+        }
+        return list;
+    }
+
+    public double getDouble(int index) {
+        if (!isPacked()) return get(index);
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public double setDouble(int index, double value) {
+        if (!isPacked()) return set(index, value);
+        checkWritable();
+        checkIndex(index);
+        double old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    public void addDouble(double value) {
+        if (!isPacked()) {
+            add(value);
+            return;
+        }
+        checkWritable();
+        grow();
+        elements[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * Returns the backing array, trimmed to the list size. No copy is made when the list is already tight,
+     * which is always the case for lists created by the loader. The returned array must not be modified.
+     *
+     * @throws IllegalStateException if the list is no longer {@link #isPacked() packed}
+     */
+    public double @NotNull [] toDoubleArray() {
+        checkPacked();
+        if (elements.length != size) elements = Arrays.copyOf(elements, size);
+        return elements;
+    }
+
+    @Override
+    int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    void move(int from, int to, int length) {
+        System.arraycopy(elements, from, elements, to, length);
+    }
+
+    @Override
+    @NotNull Double box(int index) {
+        return elements[index];
+    }
+
+    @Override
+    boolean accepts(@Nullable Object element) {
+        return element instanceof Double;
+    }
+
+    @Override
+    void store(int index, @NotNull Double element) {
+        elements[index] = element;
+    }
+
+}
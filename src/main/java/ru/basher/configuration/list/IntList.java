@@ -0,0 +1,121 @@
+package ru.basher.configuration.list;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * {@code List<Integer>} backed by an {@code int[]}. Homogeneous integer sequences are loaded into it,
+ * so they take no boxed elements and can be read through {@link #getInt(int)} or {@link #toIntArray()}
+ * without copying. Elements of other types inflate it into boxed storage, see {@link PrimitiveList}.
+ */
+public final class IntList extends PrimitiveList<Integer> {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] elements;
+
+    public IntList() {
+        this(EMPTY, 0, false);
+    }
+
+    public IntList(int capacity) {
+        this(new int[capacity], 0, false);
+    }
+
+    private IntList(int @NotNull [] elements, int size, boolean readOnly) {
+        super(size, readOnly);
+        this.elements = elements;
+    }
+
+    /**
+     * Wraps the array without copying. The caller must not modify it afterwards.
+     */
+    public static @NotNull IntList wrap(int @NotNull ... elements) {
+        return new IntList(elements, elements.length, false);
+    }
+
+    public static @NotNull IntList readOnlyCopyOf(@NotNull IntList list) {
+        list.checkPacked();
+        return new IntList(Arrays.copyOf(list.elements, list.size), list.size, true);
+    }
+
+    public static @NotNull IntList copyOf(@NotNull Collection<? extends Number> numbers) {
+        IntList list = new IntList(numbers.size());
+        for (Number number : numbers) {
+            list.elements[list.size++] = number.intValue();
+        }
+        return list;
+    }
+
+    public int getInt(int index) {
+        if (!isPacked()) return get(index);
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public int setInt(int index, int value) {
+        if (!isPacked()) return set(index, value);
+        checkWritable();
+        checkIndex(index);
+        int old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    public void addInt(int value) {
+        if (!isPacked()) {
+            add(value);
+            return;
+        }
+        checkWritable();
+        grow();
+        elements[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * Returns the backing array, trimmed to the list size. No copy is made when the list is already tight,
+     * which is always the case for lists created by the loader. The returned array must not be modified.
+     *
+     * @throws IllegalStateException if the list is no longer {@link #isPacked() packed}
+     */
+    public int @NotNull [] toIntArray() {
+        checkPacked();
+        if (elements.length != size) elements = Arrays.copyOf(elements, size);
+        return elements;
+    }
+
+    @Override
+    int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    void move(int from, int to, int length) {
+        System.arraycopy(elements, from, elements, to, length);
+    }
+
+    @Override
+    @NotNull Integer box(int index) {
+        return elements[index];
+    }
+
+    @Override
+    boolean accepts(@Nullable Object element) {
+        return element instanceof Integer;
+    }
+
+    @Override
+    void store(int index, @NotNull Integer element) {
+        elements[index] = element;
+    }
+
+}
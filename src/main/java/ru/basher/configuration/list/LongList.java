@@ -0,0 +1,121 @@
+package ru.basher.configuration.list;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * {@code List<Long>} backed by a {@code long[]}. Homogeneous long sequences are loaded into it,
+ * so they take no boxed elements and can be read through {@link #getLong(int)} or {@link #toLongArray()}
+ * without copying. Elements of other types inflate it into boxed storage, see {@link PrimitiveList}.
+ */
+public final class LongList extends PrimitiveList<Long> {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] elements;
+
+    public LongList() {
+        this(EMPTY, 0, false);
+    }
+
+    public LongList(int capacity) {
+        this(new long[capacity], 0, false);
+    }
+
+    private LongList(long @NotNull [] elements, int size, boolean readOnly) {
+        super(size, readOnly);
+        this.elements = elements;
+    }
+
+    /**
+     * Wraps the array without copying. The caller must not modify it afterwards.
+     */
+    public static @NotNull LongList wrap(long @NotNull ... elements) {
+        return new LongList(elements, elements.length, false);
+    }
+
+    public static @NotNull LongList readOnlyCopyOf(@NotNull LongList list) {
+        list.checkPacked();
+        return new LongList(Arrays.copyOf(list.elements, list.size), list.size, true);
+    }
+
+    public static @NotNull LongList copyOf(@NotNull Collection<? extends Number> numbers) {
+        LongList list = new LongList(numbers.size());
+        for (Number number : numbers) {
+            list.elements[list.size++] = number.longValue();
+        }
+        return list;
+    }
+
+    public long getLong(int index) {
+        if (!isPacked()) return get(index);
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public long setLong(int index, long value) {
+        if (!isPacked()) return set(index, value);
+        checkWritable();
+        checkIndex(index);
+        long old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    public void addLong(long value) {
+        if (!isPacked()) {
+            add(value);
+            return;
+        }
+        checkWritable();
+        grow();
+        elements[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * Returns the backing array, trimmed to the list size. No copy is made when the list is already tight,
+     * which is always the case for lists created by the loader. The returned array must not be modified.
+     *
+     * @throws IllegalStateException if the list is no longer {@link #isPacked() packed}
+     */
+    public long @NotNull [] toLongArray() {
+        checkPacked();
+        if (elements.length != size) elements = Arrays.copyOf(elements, size);
+        return elements;
+    }
+
+    @Override
+    int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    void move(int from, int to, int length) {
+        System.arraycopy(elements, from, elements, to, length);
+    }
+
+    @Override
+    @NotNull Long box(int index) {
+        return elements[index];
+    }
+
+    @Override
+    boolean accepts(@Nullable Object element) {
+        return element instanceof Long;
+    }
+
+    @Override
+    void store(int index, @NotNull Long element) {
+        elements[index] = element;
+    }
+
+}
@@ -0,0 +1,139 @@
+package ru.basher.configuration.list;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Base of the lists backed by a primitive array. It keeps the size, the bounds checks and the array growth,
+ * subclasses only own the array and their typed accessors.
+ * <p>
+ * The lists stay usable as plain {@code List<Object>}: adding or setting an element of another type
+ * (or {@code null}) inflates the list into boxed storage, after which it behaves like an {@link ArrayList}
+ * and {@link #isPacked()} is false. Clearing the list makes it packed again.
+ */
+public abstract class PrimitiveList<E> extends AbstractList<E> implements RandomAccess {
+
+    int size;
+    private final boolean readOnly;
+    private @Nullable List<Object> boxed;
+
+    PrimitiveList(int size, boolean readOnly) {
+        this.size = size;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * @return true while the elements are held in the primitive array, false once the list was inflated
+     */
+    public final boolean isPacked() {
+        return boxed == null;
+    }
+
+    abstract int capacity();
+
+    abstract void resize(int capacity);
+
+    abstract void move(int from, int to, int length);
+
+    abstract @NotNull E box(int index);
+
+    abstract boolean accepts(@Nullable Object element);
+
+    abstract void store(int index, @NotNull E element);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (boxed != null) return (E) boxed.get(index);
+        checkIndex(index);
+        return box(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        checkWritable();
+        if (boxed == null && !accepts(element)) inflate();
+        if (boxed != null) return (E) boxed.set(index, element);
+        checkIndex(index);
+        E old = box(index);
+        store(index, element);
+        return old;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkWritable();
+        if (boxed == null && !accepts(element)) inflate();
+        if (boxed != null) {
+            boxed.add(index, element);
+        } else {
+            if (index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            grow();
+            move(index, index + 1, size - index);
+            store(index, element);
+            size++;
+        }
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        checkWritable();
+        E old;
+        if (boxed != null) {
+            old = (E) boxed.remove(index);
+        } else {
+            checkIndex(index);
+            old = box(index);
+            move(index + 1, index, size - index - 1);
+            size--;
+        }
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        boxed = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return boxed != null ? boxed.size() : size;
+    }
+
+    final void grow() {
+        if (size == capacity()) resize(Math.max(8, size + (size >> 1)));
+    }
+
+    final void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    final void checkWritable() {
+        if (readOnly) throw new UnsupportedOperationException("List is read-only");
+    }
+
+    final void checkPacked() {
+        if (boxed != null) throw new IllegalStateException("List holds elements of other types");
+    }
+
+    private void inflate() {
+        List<Object> list = new ArrayList<>(size + 1);
+        for (int i = 0; i < size; i++) list.add(box(i));
+        resize(0);
+        size = 0;
+        boxed = list;
+    }
+
+}
@@ -0,0 +1,84 @@
+package ru.basher.configuration.list;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class PrimitiveLists {
+
+    private PrimitiveLists() {
+    }
+
+    /**
+     * Moves a list whose elements are all {@link Integer}, all {@link Long}, all {@link Double}
+     * or all {@link Boolean} into the matching primitive list. Any other list is returned as is.
+     */
+    public static @NotNull List<?> compact(@NotNull List<?> list) {
+        if (list.isEmpty()) return list;
+        Class<?> type = list.get(0).getClass();
+        if (type != Integer.class && type != Long.class && type != Double.class && type != Boolean.class) return list;
+        for (Object element : list) {
+            if (element.getClass() != type) return list;
+        }
+
+        int size = list.size();
+        if (type == Integer.class) {
+            int[] elements = new int[size];
+            for (int i = 0; i < size; i++) elements[i] = (Integer) list.get(i);
+            return IntList.wrap(elements);
+        }
+        if (type == Long.class) {
+            long[] elements = new long[size];
+            for (int i = 0; i < size; i++) elements[i] = (Long) list.get(i);
+            return LongList.wrap(elements);
+        }
+        if (type == Double.class) {
+            double[] elements = new double[size];
+            for (int i = 0; i < size; i++) elements[i] = (Double) list.get(i);
+            return DoubleList.wrap(elements);
+        }
+        boolean[] elements = new boolean[size];
+        for (int i = 0; i < size; i++) elements[i] = (Boolean) list.get(i);
+        return BooleanList.wrap(elements);
+    }
+
+    /**
+     * @return a modifiable deep copy of the list, keeping primitive-backed lists primitive-backed
+     */
+    public static @NotNull List<?> mutableCopy(@NotNull List<?> list) {
+        if (isPacked(list)) {
+            if (list instanceof IntList) return IntList.wrap(((IntList) list).toIntArray().clone());
+            if (list instanceof LongList) return LongList.wrap(((LongList) list).toLongArray().clone());
+            if (list instanceof DoubleList) return DoubleList.wrap(((DoubleList) list).toDoubleArray().clone());
+            if (list instanceof BooleanList) return BooleanList.wrap(((BooleanList) list).toBooleanArray().clone());
+        }
+
+        List<Object> copy = new ArrayList<>(list.size());
+        for (Object element : list) {
+            copy.add(element instanceof List ? mutableCopy((List<?>) element) : element);
+        }
+        return copy;
+    }
+
+    /**
+     * @return a read-only copy if the list is primitive-backed, otherwise null
+     */
+    public static @Nullable List<?> readOnlyCopy(@NotNull List<?> list) {
+        if (!isPacked(list)) return null;
+        if (list instanceof IntList) return IntList.readOnlyCopyOf((IntList) list);
+        if (list instanceof LongList) return LongList.readOnlyCopyOf((LongList) list);
+        if (list instanceof DoubleList) return DoubleList.readOnlyCopyOf((DoubleList) list);
+        if (list instanceof BooleanList) return BooleanList.readOnlyCopyOf((BooleanList) list);
+        return null;
+    }
+
+    /**
+     * @return true if the list is a primitive list that still holds its elements in the primitive array
+     */
+    public static boolean isPacked(@NotNull List<?> list) {
+        return list instanceof PrimitiveList && ((PrimitiveList<?>) list).isPacked();
+    }
+
+}
@@ -0,0 +1,53 @@
+package ru.basher.configuration.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+/**
+ * Receives measurements of configuration loads, saves, lookups and migrations once {@link Metrics#install installed}.
+ * <p>
+ * Methods are called synchronously on the thread doing the work, from any number of threads at once,
+ * so implementations must be thread-safe and cheap. Every method does nothing by default.
+ */
+public interface ConfigurationMetrics {
+
+    /**
+     * A configuration was loaded.
+     *
+     * @param file     the file it was loaded from, or null for a reader
+     * @param bytes    size of the file, or -1 for a reader
+     * @param keys     entries in the loaded tree, sections included; a top-level entry that is not read yet counts as one
+     * @param sections sections in the loaded tree, the root excluded
+     * @param comments comment lines in the loaded tree
+     */
+    default void loaded(@Nullable File file, long nanos, long bytes, int keys, int sections, int comments) {
+    }
+
+    /**
+     * A configuration was saved to a file, or found to need no write.
+     *
+     * @param bytes   bytes written, 0 if the file was not written
+     * @param written whether the file was written
+     */
+    default void saved(@NotNull File file, long nanos, long bytes, boolean written) {
+    }
+
+    /**
+     * A value was looked up by path.
+     *
+     * @param hit   whether the path held a value; a miss returns the default
+     * @param depth number of path segments
+     */
+    default void lookup(boolean hit, int depth) {
+    }
+
+    /**
+     * A step of {@link ru.basher.configuration.migration.Migration#migrateIfNeeded()} finished:
+     * {@code probe}, {@code loadVersions}, {@code migrateFiles}, {@code changes}, {@code backup} or {@code save}.
+     */
+    default void migrationStep(@NotNull String step, long nanos) {
+    }
+
+}
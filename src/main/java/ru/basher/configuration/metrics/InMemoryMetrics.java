@@ -0,0 +1,158 @@
+package ru.basher.configuration.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums up all measurements in memory, for tests and diagnostic dumps. {@link #toString()} renders a dump.
+ */
+public class InMemoryMetrics implements ConfigurationMetrics {
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder sections = new LongAdder();
+    private final LongAdder comments = new LongAdder();
+
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder saveNanos = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    private final Map<String, LongAdder> migrationSteps = new ConcurrentHashMap<>();
+
+    @Override
+    public void loaded(@Nullable File file, long nanos, long bytes, int keys, int sections, int comments) {
+        loads.increment();
+        loadNanos.add(nanos);
+        if (bytes > 0) bytesRead.add(bytes);
+        this.keys.add(keys);
+        this.sections.add(sections);
+        this.comments.add(comments);
+    }
+
+    @Override
+    public void saved(@NotNull File file, long nanos, long bytes, boolean written) {
+        saves.increment();
+        if (written) writes.increment();
+        saveNanos.add(nanos);
+        bytesWritten.add(bytes);
+    }
+
+    @Override
+    public void lookup(boolean hit, int depth) {
+        (hit ? hits : misses).increment();
+        if (depth > maxDepth.get()) maxDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    @Override
+    public void migrationStep(@NotNull String step, long nanos) {
+        migrationSteps.computeIfAbsent(step, s -> new LongAdder()).add(nanos);
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getKeys() {
+        return keys.sum();
+    }
+
+    public long getSections() {
+        return sections.sum();
+    }
+
+    public long getComments() {
+        return comments.sum();
+    }
+
+    /**
+     * @return saves requested, including those that found nothing to write
+     */
+    public long getSaves() {
+        return saves.sum();
+    }
+
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    public long getSaveNanos() {
+        return saveNanos.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long getLookupHits() {
+        return hits.sum();
+    }
+
+    public long getLookupMisses() {
+        return misses.sum();
+    }
+
+    public int getMaxLookupDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * @return total time per migration step, by step name
+     */
+    public @NotNull Map<String, Long> getMigrationStepNanos() {
+        Map<String, Long> result = new TreeMap<>();
+        migrationSteps.forEach((step, nanos) -> result.put(step, nanos.sum()));
+        return result;
+    }
+
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{loads, loadNanos, bytesRead, keys, sections, comments,
+                saves, writes, saveNanos, bytesWritten, hits, misses}) {
+            adder.reset();
+        }
+        maxDepth.set(0);
+        migrationSteps.clear();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        StringBuilder dump = new StringBuilder()
+                .append("loads=").append(getLoads())
+                .append(" loadMs=").append(getLoadNanos() / 1_000_000)
+                .append(" bytesRead=").append(getBytesRead())
+                .append(" keys=").append(getKeys())
+                .append(" sections=").append(getSections())
+                .append(" comments=").append(getComments())
+                .append("\nsaves=").append(getSaves())
+                .append(" writes=").append(getWrites())
+                .append(" saveMs=").append(getSaveNanos() / 1_000_000)
+                .append(" bytesWritten=").append(getBytesWritten())
+                .append("\nlookupHits=").append(getLookupHits())
+                .append(" lookupMisses=").append(getLookupMisses())
+                .append(" maxLookupDepth=").append(getMaxLookupDepth());
+        getMigrationStepNanos().forEach((step, nanos) -> dump.append("\nmigration.").append(step).append("Ms=").append(nanos / 1_000_000));
+        return dump.toString();
+    }
+
+}
@@ -0,0 +1,29 @@
+package ru.basher.configuration.metrics;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Process-wide {@link ConfigurationMetrics}. While none is installed, measuring costs a single field read.
+ */
+public final class Metrics {
+
+    private static volatile @Nullable ConfigurationMetrics current;
+
+    private Metrics() {
+    }
+
+    /**
+     * @param metrics receives all further measurements, or null to stop measuring
+     */
+    public static void install(@Nullable ConfigurationMetrics metrics) {
+        current = metrics;
+    }
+
+    /**
+     * @return the installed metrics, or null if measuring is off
+     */
+    public static @Nullable ConfigurationMetrics current() {
+        return current;
+    }
+
+}
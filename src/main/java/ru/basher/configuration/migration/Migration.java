@@ -4,15 +4,23 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import ru.basher.configuration.CommentConfigurationSection;
 import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.metrics.ConfigurationMetrics;
+import ru.basher.configuration.metrics.Metrics;
 import ru.basher.configuration.migration.changes.MigrationChanges;
 import ru.basher.configuration.migration.changes.SectionChanges;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 @Getter
@@ -23,9 +31,24 @@ public class Migration {
     private final String versionFileName;
     private final String versionSection;
     private final boolean needBackup;
-
+    private final Executor executor;
+
+    /**
+     * Migrates the files, runs the changes and saves the result.
+     * <p>
+     * Each step runs its independent parts as tasks on the executor set in the {@link Builder}: the
+     * {@link MigratableFile#migrate} calls, the changes of unrelated files, the backups and the saves.
+     * Changes that touch the same file always run in version order, and in the order they were added within a version.
+     *
+     * @return false if the migration failed
+     */
     public boolean migrateIfNeeded() {
         if(files.isEmpty()) return true;
+        ConfigurationMetrics metrics = Metrics.current();
+        long mark = System.nanoTime();
+        boolean upToDate = isUpToDate();
+        mark = step(metrics, "probe", mark);
+        if(upToDate) return true;
         try {
             MigrationContext ctx = new MigrationContext(dataFolder);
 
@@ -34,47 +57,114 @@ public class Migration {
 
             int fsVersion = fsVersionFile.getInt(versionSection, 1);
             int resVersion = resVersionFile.getInt(versionSection, 1);
+            mark = step(metrics, "loadVersions", mark);
 
-            if (fsVersion == resVersion) return true;
+            if (fsVersion == resVersion) {
+                MigrationState.remember(new File(dataFolder, versionFileName), resVersion);
+                return true;
+            }
 
+            List<MigrationContext> fileContexts = new ArrayList<>();
+            List<CompletableFuture<Void>> migrations = new ArrayList<>();
             for (MigratableFile file : files) {
-                try {
-                    file.migrate(ctx, fsVersion, resVersion);
-                } catch (Exception ignored) {
-                }
+                MigrationContext fileCtx = ctx.fork();
+                fileContexts.add(fileCtx);
+                migrations.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        file.migrate(fileCtx, fsVersion, resVersion);
+                    } catch (Exception ignored) {
+                    }
+                }, executor));
+            }
+            joinAll(migrations);
+            mark = step(metrics, "migrateFiles", mark);
+
+            for (int i = 0; i < files.size(); i++) {
+                MigratableFile file = files.get(i);
+                ctx.getChanges().addAll(fileContexts.get(i).getChanges());
                 if(file.commonRelocate()) {
                     MigrationChanges changes = new SectionChanges(resVersion - 1, file.fileName());
                     ctx.addChanges(changes);
                 }
             }
 
-            for(int version = fsVersion > resVersion ? 1 : fsVersion; version < resVersion; version++) {
-                for(MigrationChanges changes : ctx.getChanges()) {
-                    if(changes.getFromVersion() == version) {
-                        changes.migrate(ctx);
-                    }
-                }
-            }
+            new MigrationPlan(ctx.getChanges(), fsVersion > resVersion ? 1 : fsVersion, resVersion).run(ctx, executor);
+            mark = step(metrics, "changes", mark);
 
-            if(needBackup) ctx.backupFs(fsVersion);
+            if(needBackup) {
+                ctx.backupFs(fsVersion, executor);
+                mark = step(metrics, "backup", mark);
+            }
 
             resVersionFile.set(versionSection, resVersion);
+            Set<String> fileNames = new LinkedHashSet<>();
             for (MigratableFile file : files) {
-                CommentFileConfiguration config = ctx.resource(file.fileName());
-                ctx.save(file.fileName(), config);
+                fileNames.add(file.fileName());
+            }
+            List<CompletableFuture<Void>> saves = new ArrayList<>();
+            for (String fileName : fileNames) {
+                saves.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        ctx.save(fileName, ctx.resource(fileName));
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
             }
+            joinAll(saves);
+            step(metrics, "save", mark);
+
+            File versionFile = new File(dataFolder, versionFileName);
+            Integer migratedVersion = VersionProbe.probe(versionFile, versionSection, 1);
+            if (migratedVersion != null && migratedVersion == resVersion) MigrationState.remember(versionFile, resVersion);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * Tells whether the data folder is at the bundled version without loading either version file:
+     * both are only {@link VersionProbe probed}, and the version file is only hashed while its content is unchanged
+     * since it was last found at that version.
+     *
+     * @return false if a full check is needed
+     */
+    private boolean isUpToDate() {
+        Integer resVersion = VersionProbe.probe(Migration.class.getClassLoader(), versionFileName, versionSection, 1);
+        if (resVersion == null) return false;
+
+        File versionFile = new File(dataFolder, versionFileName);
+        if (MigrationState.isAt(versionFile, resVersion)) return true;
+
+        Integer fsVersion = VersionProbe.probe(versionFile, versionSection, 1);
+        if (fsVersion == null || !fsVersion.equals(resVersion)) return false;
+        MigrationState.remember(versionFile, resVersion);
+        return true;
+    }
+
+    /**
+     * Reports the step that started at the mark.
+     *
+     * @return the mark the next step starts at
+     */
+    private static long step(@Nullable ConfigurationMetrics metrics, @NotNull String name, long mark) {
+        long now = System.nanoTime();
+        if (metrics != null) metrics.migrationStep(name, now - mark);
+        return now;
+    }
+
+    private static void joinAll(@NotNull List<CompletableFuture<Void>> tasks) {
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+    }
+
     public static class Builder {
         private File dataFolder = null;
         private final List<MigratableFile> files = new ArrayList<>();
         private String versionFileName = null;
         private String versionSection = null;
         private boolean needBackup = false;
+        private Executor executor = Runnable::run;
 
         public @NotNull Builder dataFolder(@NotNull File dataFolder) {
             this.dataFolder = dataFolder;
@@ -86,6 +176,12 @@ public class Migration {
             return this;
         }
 
+        /**
+         * Name of the file holding the version, both in the data folder and among the resources.
+         * Once the data folder is found at the bundled version, a small {@code <versionFileName>.migration} file
+         * is written next to it, so that the following starts can tell the version file is unchanged without parsing it.
+         * Deleting it only makes the next start probe the version file again.
+         */
         public @NotNull Builder versionFileName(@NotNull String versionFileName) {
             this.versionFileName = versionFileName;
             return this;
@@ -101,12 +197,23 @@ public class Migration {
             return this;
         }
 
+        /**
+         * Executor for the independent parts of the migration, e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+         * By default everything runs on the calling thread. With a parallel executor, {@link MigratableFile#migrate}
+         * of different files and the {@link MigrationChanges.Task tasks} of changes to different files run
+         * concurrently, so they must not share state without synchronization.
+         */
+        public @NotNull Builder executor(@NotNull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
         public @NotNull Migration build() {
             if(dataFolder == null) throw new IllegalArgumentException("dataFolder is null");
             if(versionFileName == null) throw new IllegalArgumentException("versionFileName is null");
             if(versionSection == null) throw new IllegalArgumentException("versionSection is null");
 
-            return new Migration(dataFolder, files, versionFileName, versionSection, needBackup);
+            return new Migration(dataFolder, files, versionFileName, versionSection, needBackup, executor);
         }
 
     }
@@ -1,34 +1,55 @@
 package ru.basher.configuration.migration;
 
-import com.google.common.base.Charsets;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.ResourceCache;
 import ru.basher.configuration.migration.changes.MigrationChanges;
 
 import java.io.*;
-import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.*;
+
+/**
+ * Files and changes of a running {@link Migration}.
+ * <p>
+ * Safe to use from several threads: every file is loaded once per name however many threads ask for it,
+ * and changes may be added concurrently. The loaded configurations themselves are not synchronized,
+ * so each of them should only be changed by one thread at a time.
+ */
 public class MigrationContext {
 
     private final File dataFolder;
     private final ClassLoader classLoader;
 
-    private final Map<String, CommentFileConfiguration> fsConfigs = new HashMap<>();
-    private final Map<String, CommentFileConfiguration> resourceConfigs = new HashMap<>();
+    private final Map<String, CompletableFuture<CommentFileConfiguration>> fsConfigs;
+    private final Map<String, CompletableFuture<CommentFileConfiguration>> resourceConfigs;
 
     @Getter
-    private final List<MigrationChanges> changes = new ArrayList<>();
+    private final List<MigrationChanges> changes = Collections.synchronizedList(new ArrayList<>());
 
     public MigrationContext(File dataFolder) {
         this.dataFolder = dataFolder;
         classLoader = getClass().getClassLoader();
+        fsConfigs = new ConcurrentHashMap<>();
+        resourceConfigs = new ConcurrentHashMap<>();
+    }
+
+    private MigrationContext(@NotNull MigrationContext shared) {
+        dataFolder = shared.dataFolder;
+        classLoader = shared.classLoader;
+        fsConfigs = shared.fsConfigs;
+        resourceConfigs = shared.resourceConfigs;
+    }
+
+    /**
+     * A context that shares the loaded files with this one but collects its own changes.
+     */
+    @NotNull MigrationContext fork() {
+        return new MigrationContext(this);
     }
 
     public void addChanges(@NotNull MigrationChanges changes) {
@@ -36,44 +57,54 @@ public class MigrationContext {
     }
 
     public @NotNull CommentFileConfiguration fs(@NotNull String fileName) throws Exception {
-        CommentFileConfiguration result = fsConfigs.get(fileName);
-        if (result != null) return result;
+        return loadOnce(fsConfigs, fileName, () -> {
+            File file = new File(dataFolder, fileName);
+            if (!file.exists()) throw new FileNotFoundException(fileName + " does not exist");
 
-        File file = new File(dataFolder, fileName);
-        if (!file.exists()) throw new FileNotFoundException(fileName + " does not exist");
-
-        CommentFileConfiguration config = new CommentFileConfiguration();
-        config.load(file);
-        fsConfigs.put(fileName, config);
-        return config;
+            CommentFileConfiguration config = new CommentFileConfiguration();
+            config.load(file);
+            return config;
+        });
     }
 
+    /**
+     * Bundled default of the file, parsed once per process for the same content, see {@link ResourceCache}.
+     */
     public @NotNull CommentFileConfiguration resource(@NotNull String fileName) throws Exception {
-        CommentFileConfiguration result = resourceConfigs.get(fileName);
-        if (result != null) return result;
-
-        try (InputStream in = getResource(fileName)) {
-            if (in == null) throw new IllegalStateException("Resource not found: " + fileName);
-
-            CommentFileConfiguration config = new CommentFileConfiguration();
-            config.load(new InputStreamReader(in, Charsets.UTF_8));
-            resourceConfigs.put(fileName, config);
+        return loadOnce(resourceConfigs, fileName, () -> {
+            CommentFileConfiguration config = ResourceCache.shared().loadResource(classLoader, fileName);
+            if (config == null) throw new IllegalStateException("Resource not found: " + fileName);
             return config;
-        }
+        });
     }
 
-    private @Nullable InputStream getResource(@NotNull String fileName) {
-        try {
-            URL url = classLoader.getResource(fileName);
-            if (url == null) {
-                return null;
-            } else {
-                URLConnection connection = url.openConnection();
-                connection.setUseCaches(false);
-                return connection.getInputStream();
+    /**
+     * Loads the file on the calling thread unless another thread already did or is doing it, in which case
+     * waits for that load. A failed load is not kept, so the next call tries again.
+     */
+    private static @NotNull CommentFileConfiguration loadOnce(@NotNull Map<String, CompletableFuture<CommentFileConfiguration>> configs,
+                                                              @NotNull String fileName, @NotNull Callable<CommentFileConfiguration> loader) throws Exception {
+        CompletableFuture<CommentFileConfiguration> future = new CompletableFuture<>();
+        CompletableFuture<CommentFileConfiguration> existing = configs.putIfAbsent(fileName, future);
+        if (existing == null) {
+            try {
+                CommentFileConfiguration config = loader.call();
+                future.complete(config);
+                return config;
+            } catch (Throwable e) {
+                configs.remove(fileName, future);
+                future.completeExceptionally(e);
+                throw e;
             }
-        } catch (IOException e) {
-            return null;
+        }
+
+        try {
+            return existing.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
         }
     }
 
@@ -83,12 +114,26 @@ public class MigrationContext {
     }
 
     public void backupFs(int fsVersion) {
-        for (Map.Entry<String, CommentFileConfiguration> entry : fsConfigs.entrySet()) {
-            File file = new File(dataFolder, entry.getKey());
-            File renamedFile = new File(dataFolder, file.getName().replace(".yml", "-backup-v" + fsVersion + ".yml"));
-            if (renamedFile.exists()) renamedFile.delete();
-            file.renameTo(renamedFile);
+        backupFs(fsVersion, Runnable::run);
+    }
+
+    /**
+     * Renames every file loaded from the data folder to its backup name, each as a task on the executor,
+     * and waits until all are renamed.
+     */
+    public void backupFs(int fsVersion, @NotNull Executor executor) {
+        List<CompletableFuture<Void>> renames = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<CommentFileConfiguration>> entry : fsConfigs.entrySet()) {
+            if (!entry.getValue().isDone() || entry.getValue().isCompletedExceptionally()) continue;
+
+            renames.add(CompletableFuture.runAsync(() -> {
+                File file = new File(dataFolder, entry.getKey());
+                File renamedFile = new File(dataFolder, file.getName().replace(".yml", "-backup-v" + fsVersion + ".yml"));
+                if (renamedFile.exists()) renamedFile.delete();
+                file.renameTo(renamedFile);
+            }, executor));
         }
+        CompletableFuture.allOf(renames.toArray(new CompletableFuture<?>[0])).join();
     }
 
 }
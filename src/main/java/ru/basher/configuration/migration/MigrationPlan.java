@@ -0,0 +1,113 @@
+package ru.basher.configuration.migration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.basher.configuration.migration.changes.FileChanges;
+import ru.basher.configuration.migration.changes.MigrationChanges;
+import ru.basher.configuration.migration.changes.SectionChanges;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Order in which the changes of a migration run.
+ * <p>
+ * Changes run by ascending {@link MigrationChanges#getFromVersion() from version}, and in the order they were added
+ * within a version. A change only waits for the earlier changes that touch one of its files, so changes of
+ * unrelated files run in parallel. Changes of unknown types may touch anything and wait for all earlier changes,
+ * as all later changes wait for them.
+ */
+final class MigrationPlan {
+
+    private final List<MigrationChanges> changes = new ArrayList<>();
+
+    /**
+     * Plans the changes that apply from the first version up to, but excluding, the last.
+     */
+    MigrationPlan(@NotNull List<MigrationChanges> changes, int fromVersion, int toVersion) {
+        if (fromVersion >= toVersion) return;
+        NavigableMap<Integer, List<MigrationChanges>> byVersion = new TreeMap<>();
+        for (MigrationChanges change : changes) {
+            byVersion.computeIfAbsent(change.getFromVersion(), version -> new ArrayList<>()).add(change);
+        }
+        for (List<MigrationChanges> version : byVersion.subMap(fromVersion, true, toVersion, false).values()) {
+            this.changes.addAll(version);
+        }
+    }
+
+    /**
+     * Runs every change as a task on the executor once the changes it depends on are done.
+     *
+     * @throws Exception the first failure; changes that depend on a failed one do not run
+     */
+    void run(@NotNull MigrationContext ctx, @NotNull Executor executor) throws Exception {
+        Map<String, CompletableFuture<Void>> lastByFile = new HashMap<>();
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        CompletableFuture<Void> barrier = CompletableFuture.completedFuture(null);
+
+        for (MigrationChanges change : changes) {
+            Set<String> files = touchedFiles(change);
+            CompletableFuture<Void> after;
+            if (files == null) {
+                after = CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]));
+            } else {
+                List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+                dependencies.add(barrier);
+                for (String file : files) {
+                    CompletableFuture<Void> last = lastByFile.get(file);
+                    if (last != null) dependencies.add(last);
+                }
+                after = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]));
+            }
+
+            CompletableFuture<Void> task = after.thenRunAsync(() -> {
+                try {
+                    change.migrate(ctx);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+
+            if (files == null) {
+                barrier = task;
+                lastByFile.clear();
+            } else {
+                for (String file : files) {
+                    lastByFile.put(file, task);
+                }
+            }
+            all.add(task);
+        }
+
+        Exception failure = null;
+        for (CompletableFuture<Void> task : all) {
+            try {
+                task.join();
+            } catch (CompletionException e) {
+                // a skipped dependent reports the failure of its dependency again
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (failure == null) failure = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * @return the data folder and resource files the change reads or writes, or null if unknown,
+     * as for subclasses that may override what is migrated
+     */
+    private static @Nullable Set<String> touchedFiles(@NotNull MigrationChanges change) {
+        if (change.getClass() == SectionChanges.class) {
+            String fileName = ((SectionChanges) change).getFileName();
+            return new HashSet<>(Arrays.asList("fs:" + fileName, "resource:" + fileName));
+        }
+        if (change.getClass() == FileChanges.class) {
+            FileChanges fileChanges = (FileChanges) change;
+            return new HashSet<>(Arrays.asList("fs:" + fileChanges.getOldFileName(), "resource:" + fileChanges.getNewFileName()));
+        }
+        return null;
+    }
+
+}
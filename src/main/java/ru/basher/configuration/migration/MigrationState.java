@@ -0,0 +1,122 @@
+package ru.basher.configuration.migration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Version the data folder was last found migrated to, written next to the version file, so that a start with
+ * an unchanged version file does not need to parse it at all.
+ * <p>
+ * Holds the version together with the size and the SHA-256 of the version file content at that moment,
+ * and a checksum of the record, which makes a torn or foreign file read as no state.
+ */
+final class MigrationState {
+
+    private static final int MAGIC = 0x424d4753; // "BMGS"
+    private static final int FORMAT = 2;
+    private static final int DIGEST_SIZE = 32;
+    private static final int SIZE = 4 + 4 + 4 + 8 + DIGEST_SIZE + 4;
+
+    private final int version;
+    private final long length;
+    private final byte[] digest;
+
+    private MigrationState(int version, long length, byte @NotNull [] digest) {
+        this.version = version;
+        this.length = length;
+        this.digest = digest;
+    }
+
+    /**
+     * @return the state file of a version file
+     */
+    static @NotNull File stateFile(@NotNull File versionFile) {
+        File absolute = versionFile.getAbsoluteFile();
+        return new File(absolute.getParentFile(), absolute.getName() + ".migration");
+    }
+
+    /**
+     * @return whether the version file was last found at the version and its content is unchanged since
+     */
+    static boolean isAt(@NotNull File versionFile, int version) {
+        MigrationState state = read(stateFile(versionFile));
+        if (state == null || state.version != version || versionFile.length() != state.length) return false;
+        byte[] digest = digest(versionFile);
+        return digest != null && Arrays.equals(digest, state.digest);
+    }
+
+    /**
+     * Remembers that the version file is at the version. Failures are ignored, the next start then reads the version file.
+     */
+    static void remember(@NotNull File versionFile, int version) {
+        long length = versionFile.length();
+        byte[] digest = digest(versionFile);
+        if (digest == null) return;
+
+        ByteBuffer out = ByteBuffer.allocate(SIZE);
+        out.putInt(MAGIC);
+        out.putInt(FORMAT);
+        out.putInt(version);
+        out.putLong(length);
+        out.put(digest);
+        out.putInt(checksum(out.array()));
+        try {
+            Files.write(stateFile(versionFile).toPath(), out.array());
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static @Nullable MigrationState read(@NotNull File stateFile) {
+        if (!stateFile.isFile() || stateFile.length() != SIZE) return null;
+        ByteBuffer in;
+        try {
+            in = ByteBuffer.wrap(Files.readAllBytes(stateFile.toPath()));
+        } catch (IOException e) {
+            return null;
+        }
+        if (in.remaining() != SIZE || in.getInt(SIZE - 4) != checksum(in.array())) return null;
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT) return null;
+        int version = in.getInt();
+        long length = in.getLong();
+        byte[] digest = new byte[DIGEST_SIZE];
+        in.get(digest);
+        return new MigrationState(version, length, digest);
+    }
+
+    private static byte @Nullable [] digest(@NotNull File file) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return digest.digest();
+    }
+
+    private static int checksum(byte @NotNull [] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, SIZE - 4);
+        return (int) crc.getValue();
+    }
+
+}
@@ -0,0 +1,155 @@
+package ru.basher.configuration.migration;
+
+import com.google.common.base.Charsets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import ru.basher.configuration.Scalars;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads a single integer from a document without loading it: only parser events are read, no nodes or values
+ * are built except the one at the path.
+ * <p>
+ * The result is what {@code getInt(path, def)} returns on the loaded document. The mappings along the path are read
+ * to their end to make sure none of their keys on the path is repeated, since the full load keeps the last one.
+ * Documents that only a full load can tell, e.g. with such a repeated key, an alias or a merge key, give no result.
+ */
+final class VersionProbe {
+
+    private static final Object ABSENT = new Object();
+
+    private VersionProbe() {
+    }
+
+    /**
+     * @return the version, or null if the file does not exist or needs a full load
+     */
+    static @Nullable Integer probe(@NotNull File file, @NotNull String path, int def) {
+        if (!file.isFile()) return null;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), Charsets.UTF_8)) {
+            return probe(reader, path, def);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Same as {@link #probe(File, String, int)} for a resource, which is read without URL caches.
+     */
+    static @Nullable Integer probe(@NotNull ClassLoader classLoader, @NotNull String name, @NotNull String path, int def) {
+        URL url = classLoader.getResource(name);
+        if (url == null) return null;
+        try {
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            try (Reader reader = new InputStreamReader(connection.getInputStream(), Charsets.UTF_8)) {
+                return probe(reader, path, def);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static @Nullable Integer probe(@NotNull Reader reader, @NotNull String path, int def) {
+        try {
+            Parser parser = new ParserImpl(new StreamReader(reader), new LoaderOptions());
+            parser.getEvent(); // stream start
+            if (parser.checkEvent(Event.ID.StreamEnd)) return def;
+            parser.getEvent(); // document start
+            if (!parser.checkEvent(Event.ID.MappingStart)) return null;
+
+            Object value = find(parser, path);
+            if (value == null) return null;
+            return value instanceof Integer ? (Integer) value : def;
+        } catch (RuntimeException e) {
+            // malformed documents are reported by the full load
+            return null;
+        }
+    }
+
+    /**
+     * Reads the mapping that starts at the next event to its end.
+     *
+     * @return the value as an {@link Integer}, {@link #ABSENT} if the mapping has no number at the path,
+     * or null if it cannot be told
+     */
+    private static @Nullable Object find(@NotNull Parser parser, @NotNull String path) {
+        parser.getEvent(); // mapping start
+        Set<String> seen = new HashSet<>();
+        Object result = ABSENT;
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event key = parser.getEvent();
+            if (!(key instanceof ScalarEvent)) return null;
+            String name = ((ScalarEvent) key).getValue();
+            if (name.equals("<<")) return null;
+
+            boolean exact = name.equals(path);
+            if (!exact && !path.startsWith(name + ".")) {
+                skip(parser);
+                continue;
+            }
+            if (!seen.add(name)) return null;
+
+            Object value;
+            if (exact) {
+                value = value(parser);
+            } else if (parser.checkEvent(Event.ID.Alias)) {
+                return null;
+            } else if (parser.checkEvent(Event.ID.MappingStart)) {
+                value = find(parser, path.substring(name.length() + 1));
+            } else {
+                skip(parser);
+                value = ABSENT;
+            }
+            if (value == null) return null;
+            if (value != ABSENT) result = value;
+        }
+        parser.getEvent(); // mapping end
+        return result;
+    }
+
+    private static @Nullable Object value(@NotNull Parser parser) {
+        if (parser.checkEvent(Event.ID.Alias)) return null;
+        if (!parser.checkEvent(Event.ID.Scalar)) {
+            skip(parser);
+            return ABSENT;
+        }
+
+        ScalarEvent scalar = (ScalarEvent) parser.getEvent();
+        String tag = scalar.getTag();
+        if (tag != null && !tag.equals("!")) return null;
+
+        if (!scalar.getImplicit().canOmitTagInPlainScalar()) return ABSENT;
+        Object value;
+        try {
+            value = Scalars.parse(scalar.getValue());
+        } catch (NumberFormatException e) {
+            // the full load fails on it
+            return null;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : ABSENT;
+    }
+
+    /**
+     * Skips the node that starts at the next event.
+     */
+    private static void skip(@NotNull Parser parser) {
+        int depth = 0;
+        do {
+            Event event = parser.getEvent();
+            if (event instanceof CollectionStartEvent) depth++;
+            if (event instanceof CollectionEndEvent) depth--;
+        } while (depth > 0);
+    }
+
+}
@@ -37,16 +37,19 @@ public abstract class MigrationChanges {
             Object sourceValue = sourceMap.get(entry.getKey());
 
             if (sourceValue == null) continue;
+            if (targetValue instanceof List) {
+                // compared by interface: loaded lists may be primitive-backed on one side and plain on the other
+                if (sourceValue instanceof List && listsWithSameElementTypes((List<?>) sourceValue, (List<?>) targetValue)) {
+                    target.set(entry.getKey(), sourceValue);
+                }
+                continue;
+            }
             if (sourceValue.getClass() != targetValue.getClass()) continue;
 
             if (targetValue instanceof CommentConfigurationSection) {
                 relocateCommonSections((CommentConfigurationSection) sourceValue, (CommentConfigurationSection) targetValue);
-            } else if (targetValue instanceof List) {
-                if (listsWithSameElementTypes((List<?>) sourceValue, (List<?>) targetValue)) {
-                    target.getMap().put(entry.getKey(), sourceValue);
-                }
             } else {
-                target.getMap().put(entry.getKey(), sourceValue);
+                target.set(entry.getKey(), sourceValue);
             }
         }
     }
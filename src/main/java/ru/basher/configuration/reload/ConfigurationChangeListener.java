@@ -0,0 +1,18 @@
+package ru.basher.configuration.reload;
+
+import org.jetbrains.annotations.NotNull;
+import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.diff.DiffEntry;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface ConfigurationChangeListener {
+
+    /**
+     * Called after a reload was applied, only with the changes that affect the prefix the listener was registered with,
+     * see {@link DiffEntry#affects(String)}. Never called with an empty list.
+     */
+    void onChange(@NotNull CommentFileConfiguration config, @NotNull List<DiffEntry> changes);
+
+}
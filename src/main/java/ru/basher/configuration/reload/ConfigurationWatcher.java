@@ -0,0 +1,159 @@
+package ru.basher.configuration.reload;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.NotNull;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Reloads configuration files when they change on disk.
+ * <p>
+ * All files share one {@link WatchService} and one watcher thread, registered per directory, so watching
+ * hundreds of files costs no extra threads. Bursts of events for a file are coalesced: the file is parsed
+ * once the debounce window passes without new events. Parsing happens on a background scheduler thread,
+ * into a configuration with the settings of the watched one (see {@link CommentFileConfiguration#newWithSameSettings()});
+ * the new content is then applied to the live configuration and listeners are notified on the apply executor.
+ * Configurations are not thread-safe, so the apply executor has to run tasks on the thread that owns them
+ * (e.g. the server main thread).
+ * <p>
+ * A watched directory that is deleted or replaced stops delivering events. Its files are then dropped
+ * from the watcher and the error handler receives an {@link IOException}; watch them again once the directory exists.
+ */
+public class ConfigurationWatcher implements Closeable {
+
+    private final WatchService watchService;
+    @Getter(AccessLevel.PACKAGE)
+    private final ScheduledExecutorService scheduler;
+    @Getter(AccessLevel.PACKAGE)
+    private final Executor applyExecutor;
+    private final long debounceMillis;
+
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    private final Map<Path, WatchedConfiguration> files = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    @Getter(AccessLevel.PACKAGE)
+    @Setter
+    private volatile @NotNull Consumer<Throwable> errorHandler = e -> {};
+
+    /**
+     * Uses a 200 ms debounce window.
+     *
+     * @param applyExecutor runs reloads on the thread that owns the configurations
+     */
+    public ConfigurationWatcher(@NotNull Executor applyExecutor) throws IOException {
+        this(200, applyExecutor);
+    }
+
+    public ConfigurationWatcher(long debounceMillis, @NotNull Executor applyExecutor) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = debounceMillis;
+        this.applyExecutor = applyExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BasherConfiguration-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.thread = new Thread(this::run, "BasherConfiguration-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Starts watching the file. The configuration is expected to be already loaded from it.
+     */
+    public @NotNull WatchedConfiguration watch(@NotNull File file, @NotNull CommentFileConfiguration config) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        Path directory = path.getParent();
+        if (!directories.containsKey(directory)) {
+            WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            directories.put(directory, key);
+        }
+
+        WatchedConfiguration watched = new WatchedConfiguration(path.toFile(), config, this);
+        WatchedConfiguration previous = files.put(path, watched);
+        if (previous != null) previous.cancel();
+        return watched;
+    }
+
+    public void unwatch(@NotNull File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        WatchedConfiguration watched = files.remove(path);
+        if (watched != null) watched.cancel();
+
+        Path directory = path.getParent();
+        for (Path other : files.keySet()) {
+            if (other.getParent().equals(directory)) return;
+        }
+        WatchKey key = directories.remove(directory);
+        if (key != null) key.cancel();
+    }
+
+    private void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    for (Map.Entry<Path, WatchedConfiguration> entry : files.entrySet()) {
+                        if (entry.getKey().getParent().equals(directory)) entry.getValue().schedule(debounceMillis);
+                    }
+                    continue;
+                }
+
+                Path changed = directory.resolve((Path) event.context());
+                WatchedConfiguration watched = files.get(changed);
+                if (watched != null) watched.schedule(debounceMillis);
+            }
+            if (!key.reset()) invalidated(directory, key);
+        }
+    }
+
+    /**
+     * The directory was deleted, replaced or became inaccessible; its key delivers no more events.
+     */
+    private void invalidated(@NotNull Path directory, @NotNull WatchKey key) {
+        if (closed || !directories.remove(directory, key)) return;
+
+        files.entrySet().removeIf(entry -> {
+            if (!entry.getKey().getParent().equals(directory)) return false;
+            entry.getValue().cancel();
+            return true;
+        });
+        errorHandler.accept(new IOException("Directory is no longer watched: " + directory));
+    }
+
+    /**
+     * Stops watching. Reloads that are already parsed may still be applied.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (WatchedConfiguration watched : files.values()) {
+            watched.cancel();
+        }
+        files.clear();
+        directories.clear();
+        watchService.close();
+        scheduler.shutdown();
+        thread.interrupt();
+    }
+
+}
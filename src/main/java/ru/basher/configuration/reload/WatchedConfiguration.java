@@ -0,0 +1,113 @@
+package ru.basher.configuration.reload;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import ru.basher.configuration.CommentFileConfiguration;
+import ru.basher.configuration.diff.ConfigDiff;
+import ru.basher.configuration.diff.DiffEntry;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A configuration file registered in a {@link ConfigurationWatcher}.
+ */
+public class WatchedConfiguration {
+
+    @Getter
+    private final File file;
+    @Getter
+    private final CommentFileConfiguration config;
+    private final ConfigurationWatcher watcher;
+    private final List<Registration> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledFuture<?> pending;
+    private boolean cancelled;
+
+    WatchedConfiguration(@NotNull File file, @NotNull CommentFileConfiguration config, @NotNull ConfigurationWatcher watcher) {
+        this.file = file;
+        this.config = config;
+        this.watcher = watcher;
+    }
+
+    /**
+     * Registers a listener for changes under the path prefix. An empty prefix receives every change.
+     */
+    public @NotNull WatchedConfiguration addListener(@NotNull String prefix, @NotNull ConfigurationChangeListener listener) {
+        listeners.add(new Registration(prefix, listener));
+        return this;
+    }
+
+    public void removeListener(@NotNull ConfigurationChangeListener listener) {
+        listeners.removeIf(registration -> registration.listener == listener);
+    }
+
+    /**
+     * Restarts the debounce window; the file is re-read once no more events arrive within it.
+     */
+    synchronized void schedule(long debounceMillis) {
+        if (cancelled) return;
+        if (pending != null) pending.cancel(false);
+        try {
+            pending = watcher.getScheduler().schedule(this::reload, debounceMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the watcher is closing, events still being processed are dropped
+            pending = null;
+        }
+    }
+
+    /**
+     * Stops reloading this file for good: the watcher no longer holds it.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        if (pending != null) pending.cancel(false);
+        pending = null;
+    }
+
+    private void reload() {
+        if (!file.isFile()) return;
+
+        CommentFileConfiguration fresh = config.newWithSameSettings();
+        try {
+            fresh.load(file);
+        } catch (Exception e) {
+            // usually a file that is still being written, the next modify event retries
+            watcher.getErrorHandler().accept(e);
+            return;
+        }
+        watcher.getApplyExecutor().execute(() -> apply(fresh));
+    }
+
+    private void apply(@NotNull CommentFileConfiguration fresh) {
+        ConfigDiff diff = ConfigDiff.compute(config, fresh);
+        if (diff.isEmpty()) return;
+
+        config.replaceWith(fresh);
+        for (Registration registration : listeners) {
+            List<DiffEntry> matching = diff.getEntries(registration.prefix);
+            if (matching.isEmpty()) continue;
+
+            try {
+                registration.listener.onChange(config, matching);
+            } catch (Exception e) {
+                watcher.getErrorHandler().accept(e);
+            }
+        }
+    }
+
+    private static final class Registration {
+        private final String prefix;
+        private final ConfigurationChangeListener listener;
+
+        private Registration(@NotNull String prefix, @NotNull ConfigurationChangeListener listener) {
+            this.prefix = prefix;
+            this.listener = listener;
+        }
+    }
+
+}
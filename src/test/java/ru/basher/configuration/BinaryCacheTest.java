@@ -0,0 +1,112 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.basher.configuration.diff.ConfigDiff;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCacheTest {
+
+    private static final String CONTENT = "# top\na:\n  b: 1\n  c: [1, 2]\n  d: [x, 'y']\nbig: 12345678901\nratio: 0.5\nflags: [true, false]\n";
+
+    @TempDir
+    File dir;
+
+    private File write(String content) throws IOException {
+        File file = new File(dir, "config.yml");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static CommentFileConfiguration load(File file) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.setBinaryCacheEnabled(true);
+        config.load(file);
+        return config;
+    }
+
+    private static CommentFileConfiguration parse(String content) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader(content));
+        return config;
+    }
+
+    @Test
+    void cachedLoadMatchesTheParsedFile() throws IOException {
+        File file = write(CONTENT);
+        load(file);
+        File cache = BinaryCache.cacheFile(file);
+        assertTrue(cache.isFile());
+        byte[] written = Files.readAllBytes(cache.toPath());
+
+        CommentFileConfiguration cached = load(file);
+        assertTrue(ConfigDiff.compute(parse(CONTENT), cached).isEmpty());
+        assertFalse(cached.isDirty());
+        assertArrayEquals(written, Files.readAllBytes(cache.toPath()));
+    }
+
+    @Test
+    void changedFileInvalidatesTheCache() throws IOException {
+        File file = write(CONTENT);
+        load(file);
+        byte[] written = Files.readAllBytes(BinaryCache.cacheFile(file).toPath());
+
+        String changed = CONTENT.replace("b: 1", "b: 22");
+        write(changed);
+        CommentFileConfiguration config = load(file);
+        assertEquals(22, config.getInt("a.b"));
+        assertFalse(Arrays.equals(written, Files.readAllBytes(BinaryCache.cacheFile(file).toPath())));
+        assertEquals(22, load(file).getInt("a.b"));
+    }
+
+    @Test
+    void sameSizeChangeWithNewModificationTimeInvalidatesTheCache() throws IOException {
+        File file = write(CONTENT);
+        load(file);
+        long lastModified = file.lastModified();
+
+        write(CONTENT.replace("b: 1", "b: 2"));
+        assertTrue(file.setLastModified(lastModified + 2000));
+        assertEquals(2, load(file).getInt("a.b"));
+    }
+
+    @Test
+    void touchedFileKeepsTheCachedContent() throws IOException {
+        File file = write(CONTENT);
+        load(file);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+        CommentFileConfiguration config = load(file);
+        assertTrue(ConfigDiff.compute(parse(CONTENT), config).isEmpty());
+        assertEquals(1, load(file).getInt("a.b"));
+    }
+
+    @Test
+    void corruptCacheFallsBackToParsing() throws IOException {
+        File file = write(CONTENT);
+        load(file);
+        File cache = BinaryCache.cacheFile(file);
+        byte[] written = Files.readAllBytes(cache.toPath());
+
+        Files.write(cache.toPath(), Arrays.copyOf(written, written.length / 2));
+        assertTrue(ConfigDiff.compute(parse(CONTENT), load(file)).isEmpty());
+
+        byte[] garbage = written.clone();
+        for (int i = 40; i < garbage.length; i++) garbage[i] = (byte) 0xff;
+        Files.write(cache.toPath(), garbage);
+        assertTrue(ConfigDiff.compute(parse(CONTENT), load(file)).isEmpty());
+
+        Files.write(cache.toPath(), new byte[]{1, 2, 3});
+        assertTrue(ConfigDiff.compute(parse(CONTENT), load(file)).isEmpty());
+        assertArrayEquals(written, Files.readAllBytes(cache.toPath()));
+    }
+
+}
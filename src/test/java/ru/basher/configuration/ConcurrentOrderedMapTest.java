@@ -0,0 +1,107 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentOrderedMapTest {
+
+    @Test
+    void iteratesInInsertionOrder() {
+        ConcurrentOrderedMap map = new ConcurrentOrderedMap();
+        map.put("c", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        map.put("a", 4);
+        assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<>(map.keySet()));
+        assertEquals(4, map.get("a"));
+
+        map.remove("c");
+        map.put("c", 5);
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(map.keySet()));
+
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(Arrays.asList("b", "c"), new ArrayList<>(map.keySet()));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    void concurrentWritersKeepOrderAndContent() throws Exception {
+        ConcurrentOrderedMap map = new ConcurrentOrderedMap();
+        int writers = 4;
+        int keys = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < keys; i++) {
+                        String key = writer + "-" + i;
+                        map.put(key, i);
+                        if (i % 3 == 0) map.remove(key);
+                        map.put("shared", i);
+                        map.remove("shared");
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (!done.get()) {
+                        int[] last = new int[writers];
+                        Arrays.fill(last, -1);
+                        for (Map.Entry<String, Object> entry : map.entrySet()) {
+                            if (entry.getKey().equals("shared")) continue;
+                            int writer = entry.getKey().charAt(0) - '0';
+                            int index = (Integer) entry.getValue();
+                            assertTrue(index > last[writer], "keys of a writer out of order");
+                            last[writer] = index;
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+            done.set(true);
+            for (Future<?> future : readers) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(map.get("shared"));
+        int expected = writers * (keys - (keys + 2) / 3);
+        assertEquals(expected, map.size());
+        int iterated = 0;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+            iterated++;
+        }
+        assertEquals(expected, iterated);
+    }
+
+}
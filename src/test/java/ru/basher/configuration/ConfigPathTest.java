@@ -0,0 +1,68 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigPathTest {
+
+    @Test
+    void pathIsSplitIntoSegments() {
+        ConfigPath path = ConfigPath.of("a.b.c");
+        assertEquals(3, path.size());
+        assertEquals("a", path.segment(0));
+        assertEquals("c", path.last());
+        assertEquals("a.b.c", path.toString());
+        assertFalse(path.hasDottedSegment());
+
+        ConfigPath empty = ConfigPath.of("");
+        assertTrue(empty.isEmpty());
+        assertSame(empty, ConfigPath.ofSegments());
+
+        ConfigPath blank = ConfigPath.of("a..b.");
+        assertEquals(4, blank.size());
+        assertEquals("", blank.segment(1));
+        assertEquals("", blank.last());
+    }
+
+    @Test
+    void equalityGoesBySegments() {
+        assertEquals(ConfigPath.of("a.b"), ConfigPath.ofSegments("a", "b"));
+        assertEquals(ConfigPath.of("a.b").hashCode(), ConfigPath.ofSegments("a", "b").hashCode());
+        assertEquals(ConfigPath.of("a.b"), ConfigPath.of("a").child("b"));
+        assertEquals("a.b", ConfigPath.of("").child("a").child("b").toString());
+
+        ConfigPath dotted = ConfigPath.ofSegments("a.b");
+        assertTrue(dotted.hasDottedSegment());
+        assertEquals(1, dotted.size());
+        assertNotEquals(ConfigPath.of("a.b"), dotted);
+    }
+
+    @Test
+    void dottedSegmentAddressesDottedKey() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.set(ConfigPath.ofSegments("a.b"), 1);
+        config.set("a.b", 2);
+
+        assertEquals(1, config.get(ConfigPath.ofSegments("a.b")));
+        assertEquals(2, config.get(ConfigPath.of("a.b")));
+        assertEquals(2, config.get("a.b"));
+    }
+
+    @Test
+    void cacheReturnsSharedPathsAndStaysBounded() {
+        ConfigPath first = ConfigPath.cached("cached.path");
+        assertSame(first, ConfigPath.cached("cached.path"));
+        assertEquals(ConfigPath.of("cached.path"), first);
+
+        for (int i = 0; i < 10_000; i++) {
+            ConfigPath path = ConfigPath.cached("filler." + i);
+            assertEquals("filler." + i, path.toString());
+        }
+        ConfigPath again = ConfigPath.cached("cached.path");
+        assertNotSame(first, again);
+        assertEquals(first, again);
+        assertSame(again, ConfigPath.cached("cached.path"));
+    }
+
+}
@@ -0,0 +1,99 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationRegistryTest {
+
+    @TempDir
+    File dir;
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void fileIsLoadedOnceUntilRemoved() throws Exception {
+        File file = write("a.yml", "a: 1\n");
+        List<Runnable> tasks = new ArrayList<>();
+        ConfigurationRegistry registry = new ConfigurationRegistry(tasks::add, CommentFileConfiguration::new);
+
+        CompletableFuture<CommentFileConfiguration> first = registry.load(file);
+        assertSame(first, registry.load(new File(dir, "./a.yml").getAbsoluteFile()));
+        assertEquals(1, tasks.size());
+        assertFalse(first.isDone());
+        assertNull(registry.getIfLoaded(file));
+
+        tasks.get(0).run();
+        assertEquals(1, first.get().getInt("a"));
+        assertSame(first.get(), registry.getIfLoaded(file));
+
+        registry.remove(file);
+        assertNull(registry.getIfLoaded(file));
+        assertNotSame(first, registry.load(file));
+        assertEquals(2, tasks.size());
+    }
+
+    @Test
+    void directoryLoadsInParallelAndReportsFailures() throws Exception {
+        write("b.yml", "b: 2\n");
+        write("a.yaml", "a: 1\n");
+        write("broken.yml", "c: [\n");
+        write("ignored.txt", "d: 4\n");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ConfigurationRegistry registry = new ConfigurationRegistry(executor, () -> {
+                CommentFileConfiguration config = new CommentFileConfiguration();
+                config.setInterning(true);
+                return config;
+            });
+            Map<File, CompletableFuture<CommentFileConfiguration>> loads = registry.loadDirectory(dir);
+            List<String> names = new ArrayList<>();
+            for (File file : loads.keySet()) names.add(file.getName());
+            assertEquals(Arrays.asList("a.yaml", "b.yml", "broken.yml"), names);
+
+            RuntimeException error = assertThrows(RuntimeException.class, () -> ConfigurationRegistry.awaitAll(loads));
+            assertTrue(error.getMessage().contains("broken.yml"), error.getMessage());
+
+            CompletableFuture<CommentFileConfiguration> b = loads.get(new File(dir, "b.yml"));
+            assertEquals(2, b.get(10, TimeUnit.SECONDS).getInt("b"));
+            assertTrue(b.get().isInterning());
+            assertTrue(loads.get(new File(dir, "broken.yml")).isCompletedExceptionally());
+
+            registry.remove(new File(dir, "broken.yml"));
+            Map<File, CommentFileConfiguration> loaded = registry.awaitAll();
+            assertEquals(2, loaded.size());
+            assertEquals(1, loaded.get(new File(dir, "a.yaml").getAbsoluteFile()).getInt("a"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectedLoadFails() throws IOException {
+        File file = write("a.yml", "a: 1\n");
+        ConfigurationRegistry registry = new ConfigurationRegistry(task -> {
+            throw new java.util.concurrent.RejectedExecutionException();
+        }, CommentFileConfiguration::new);
+        assertTrue(registry.load(file).isCompletedExceptionally());
+    }
+
+}
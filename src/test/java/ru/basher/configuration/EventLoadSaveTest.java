@@ -0,0 +1,196 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.comments.CommentLine;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.nodes.*;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+import ru.basher.configuration.diff.ConfigDiff;
+import ru.basher.configuration.diff.DiffEntry;
+import ru.basher.configuration.list.PrimitiveLists;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the event based load and save with the node graph based ones they replaced,
+ * which are kept here as the reference.
+ */
+class EventLoadSaveTest {
+
+    private static final String[] DOCUMENTS = {
+            "",
+            "a: 1\nb: text\nc: 1.5\nd: true\ne: '7'\nf: null\n",
+            "# header\n\n# block\na:\n  # inner\n  b: 1 # inline\n  c:\n  - x\n  - 'y'\n\n# last\nd: [1, 2, 3]\n",
+            "base: &base\n  x: 1\n  # kept\n  y: [a, b]\ncopy: *base\nnum: &n 5\nref: *n\nlist: &l [1, 2]\nlists: [*l, *l]\n",
+            "seq:\n- 1\n- {a: 1}\n- [2, 3]\n- - 4\n  - x\nempty: []\nsection: {}\n",
+            "multi: |\n  line one\n  line two\nquoted: \"tab\\there\"\nkey with spaces: 'it''s'\nbig: 12345678901\nexp: 1.0e+3\nnan: .nan\n",
+    };
+
+    @Test
+    void loadMatchesTheComposer() {
+        for (String document : DOCUMENTS) {
+            CommentFileConfiguration loaded = new CommentFileConfiguration();
+            loaded.load(new StringReader(document));
+            CommentFileConfiguration reference = composerLoad(document);
+
+            ConfigDiff diff = ConfigDiff.compute(reference, loaded);
+            assertTrue(diff.isEmpty(), document + " -> " + diff);
+        }
+    }
+
+    @Test
+    void saveMatchesTheSerializer() {
+        for (String document : DOCUMENTS) {
+            CommentFileConfiguration config = new CommentFileConfiguration();
+            config.load(new StringReader(document));
+            String saved = config.saveToString();
+            assertEquals(serializerSave(config), saved, document);
+
+            // blank lines inside comments are written as empty comment lines, only the values round-trip exactly
+            CommentFileConfiguration again = new CommentFileConfiguration();
+            again.load(new StringReader(saved));
+            for (DiffEntry entry : ConfigDiff.compute(config, again).getEntries()) {
+                assertEquals(DiffEntry.Type.COMMENTS, entry.getType(), saved);
+            }
+        }
+    }
+
+    @Test
+    void aliasesAreIndependentCopies() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader(DOCUMENTS[3]));
+        config.set("base.x", 2);
+        ((List<Object>) config.get("list")).add(3);
+
+        assertEquals(1, config.getInt("copy.x"));
+        assertEquals(2, ((List<?>) ((List<?>) config.get("lists")).get(0)).size());
+    }
+
+    private static CommentFileConfiguration composerLoad(String document) {
+        LoaderOptions options = new LoaderOptions();
+        options.setProcessComments(true);
+        Composer composer = new Composer(new ParserImpl(new StreamReader(new StringReader(document)), options), new Resolver(), options);
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        Node node = composer.getSingleNode();
+        if (node instanceof MappingNode) readMapping((MappingNode) node, config);
+        return config;
+    }
+
+    private static void readMapping(MappingNode node, CommentConfigurationSection target) {
+        for (NodeTuple tuple : node.getValue()) {
+            ScalarNode keyNode = (ScalarNode) tuple.getKeyNode();
+            String key = keyNode.getValue();
+            Node valueNode = tuple.getValueNode();
+
+            if (valueNode instanceof MappingNode) {
+                readMapping((MappingNode) valueNode, target.createSection(key));
+            } else if (valueNode instanceof SequenceNode) {
+                List<Object> list = new ArrayList<>();
+                readSequence((SequenceNode) valueNode, list);
+                target.set(key, PrimitiveLists.compact(list));
+            } else if (valueNode instanceof ScalarNode) {
+                Object value = Scalars.construct(valueNode.getTag(), ((ScalarNode) valueNode).getValue());
+                if (value != null) target.set(key, value);
+            }
+
+            if (keyNode.getBlockComments() != null && !keyNode.getBlockComments().isEmpty()) {
+                List<String> comments = new ArrayList<>();
+                for (CommentLine line : keyNode.getBlockComments()) {
+                    comments.add(line.getValue());
+                }
+                target.setComments(key, comments);
+            }
+        }
+    }
+
+    private static void readSequence(SequenceNode node, List<Object> target) {
+        for (Node element : node.getValue()) {
+            if (element instanceof SequenceNode) {
+                List<Object> list = new ArrayList<>();
+                readSequence((SequenceNode) element, list);
+                target.add(PrimitiveLists.compact(list));
+            } else if (element instanceof ScalarNode) {
+                Object value = Scalars.construct(element.getTag(), ((ScalarNode) element).getValue());
+                if (value != null) target.add(value);
+            }
+        }
+    }
+
+    private static String serializerSave(CommentConfigurationSection config) {
+        DumperOptions dumperOptions = new DumperOptions();
+        dumperOptions.setProcessComments(true);
+        dumperOptions.setIndent(2);
+        dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        dumperOptions.setPrettyFlow(true);
+        Representer representer = new Representer(dumperOptions);
+        representer.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        Yaml yaml = new Yaml(new SafeConstructor(new LoaderOptions()), representer, dumperOptions);
+
+        StringWriter writer = new StringWriter();
+        yaml.serialize(writeMapping(config), writer);
+        return writer.toString();
+    }
+
+    private static MappingNode writeMapping(CommentConfigurationSection source) {
+        List<NodeTuple> tuples = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : source.getMap().entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            ScalarNode keyNode = new ScalarNode(Tag.STR, key, null, null, DumperOptions.ScalarStyle.PLAIN);
+            List<String> comments = source.getComments(key);
+            if (comments != null) {
+                List<CommentLine> block = new ArrayList<>();
+                for (String comment : comments) {
+                    block.add(new CommentLine(null, null, comment, CommentType.BLOCK));
+                }
+                keyNode.setBlockComments(block);
+            }
+
+            Node valueNode = value instanceof CommentConfigurationSection
+                    ? writeMapping((CommentConfigurationSection) value)
+                    : writeValueNode(value);
+            tuples.add(new NodeTuple(keyNode, valueNode));
+        }
+        return new MappingNode(Tag.MAP, tuples, DumperOptions.FlowStyle.BLOCK);
+    }
+
+    private static Node writeValueNode(Object value) {
+        if (value instanceof List<?>) {
+            List<Node> nodes = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                nodes.add(writeValueNode(element));
+            }
+            return new SequenceNode(Tag.SEQ, nodes, DumperOptions.FlowStyle.BLOCK);
+        }
+
+        Tag tag;
+        DumperOptions.ScalarStyle style = DumperOptions.ScalarStyle.PLAIN;
+        if (value instanceof Integer || value instanceof Long) {
+            tag = Tag.INT;
+        } else if (value instanceof Double || value instanceof Float) {
+            tag = Tag.FLOAT;
+        } else if (value instanceof Boolean) {
+            tag = Tag.BOOL;
+        } else {
+            tag = Tag.STR;
+            style = DumperOptions.ScalarStyle.SINGLE_QUOTED;
+        }
+        return new ScalarNode(tag, String.valueOf(value), null, null, style);
+    }
+
+}
@@ -0,0 +1,94 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.basher.configuration.diff.ConfigDiff;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterningTest {
+
+    private static final String LONG = "a string that is longer than the interning limit of sixty four characters";
+    private static final String DOCUMENT = "section:\n  name: shared\n  count: 64\n  big: 100000\n  long: 12345678901\n"
+            + "  ratio: 0.5\n  negative: -0.0\n  positive: 0.0\n  nan: .nan\n  flag: true\n  text: '" + LONG + "'\n"
+            + "  names: [shared, other]\n";
+
+    @TempDir
+    File dir;
+
+    private static CommentFileConfiguration load(boolean interning) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.setInterning(interning);
+        config.load(new StringReader(DOCUMENT));
+        return config;
+    }
+
+    private static String key(CommentConfigurationSection section, String name) {
+        for (String key : section.getMap().keySet()) {
+            if (key.equals(name)) return key;
+        }
+        return fail("no key " + name);
+    }
+
+    @Test
+    void internedValuesStayEqual() {
+        CommentFileConfiguration plain = load(false);
+        CommentFileConfiguration interned = load(true);
+        assertTrue(ConfigDiff.compute(plain, interned).isEmpty());
+
+        CommentConfigurationSection section = interned.getConfigurationSection("section");
+        assertEquals(Integer.class, section.get("count").getClass());
+        assertEquals(Long.class, section.get("long").getClass());
+        assertEquals(-0.0, section.get("negative"));
+        assertEquals(0.0, section.get("positive"));
+        assertNotEquals(section.get("negative"), section.get("positive"));
+        assertTrue(Double.isNaN(section.getDouble("nan")));
+        assertEquals(interned.saveToString(), plain.saveToString());
+    }
+
+    @Test
+    void equalScalarsAreShared() {
+        CommentFileConfiguration first = load(true);
+        CommentFileConfiguration second = load(true);
+        CommentConfigurationSection a = first.getConfigurationSection("section");
+        CommentConfigurationSection b = second.getConfigurationSection("section");
+
+        assertSame(key(a, "name"), key(b, "name"));
+        assertSame(a.get("name"), b.get("name"));
+        assertSame(a.get("name"), a.getStringList("names").get(0));
+        assertSame(a.get("count"), b.get("count"));
+        assertSame(a.get("big"), b.get("big"));
+        assertSame(a.get("ratio"), b.get("ratio"));
+        assertNotSame(a.get("text"), b.get("text"));
+        assertEquals(LONG, b.get("text"));
+    }
+
+    @Test
+    void cachedLoadsAreInternedToo() throws IOException {
+        File file = new File(dir, "config.yml");
+        Files.write(file.toPath(), DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        CommentFileConfiguration parsed = new CommentFileConfiguration();
+        parsed.setInterning(true);
+        parsed.setBinaryCacheEnabled(true);
+        parsed.load(file);
+
+        CommentFileConfiguration cached = new CommentFileConfiguration();
+        cached.setInterning(true);
+        cached.setBinaryCacheEnabled(true);
+        cached.load(file);
+
+        assertTrue(ConfigDiff.compute(load(false), cached).isEmpty());
+        Map<String, Object> a = parsed.getConfigurationSection("section").getMap();
+        Map<String, Object> b = cached.getConfigurationSection("section").getMap();
+        assertSame(a.get("name"), b.get("name"));
+        assertSame(a.get("big"), b.get("big"));
+    }
+
+}
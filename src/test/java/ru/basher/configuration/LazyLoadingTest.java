@@ -0,0 +1,91 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import ru.basher.configuration.diff.ConfigDiff;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyLoadingTest {
+
+    private static final String DOCUMENT = "# first\n"
+            + "first:   {a: 1,   b: [x,  y]}   # odd spacing\n"
+            + "\n"
+            + "# second\n"
+            + "second:\n"
+            + "    deep:\n"
+            + "        value: \"quoted\"\n"
+            + "third: [1, 2, 3]\n";
+
+    private static CommentFileConfiguration lazy(String document) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.setLazyLoading(true);
+        config.load(new StringReader(document));
+        return config;
+    }
+
+    private static CommentFileConfiguration eager(String document) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader(document));
+        return config;
+    }
+
+    private static boolean isLazy(CommentFileConfiguration config, String key) {
+        Map<String, Object> lazy = config.lazyEntries();
+        return lazy != null && lazy.get(key) instanceof LazyEntry;
+    }
+
+    @Test
+    void untouchedEntriesAreWrittenVerbatim() {
+        CommentFileConfiguration config = lazy(DOCUMENT);
+        assertEquals(DOCUMENT, config.saveToString());
+
+        config.set("third", Arrays.asList(4, 5));
+        String saved = config.saveToString();
+        assertTrue(saved.startsWith(DOCUMENT.substring(0, DOCUMENT.indexOf("third:"))), saved);
+        assertEquals(Arrays.asList(4, 5), eager(saved).getIntegerList("third"));
+        assertTrue(isLazy(config, "first"));
+        assertTrue(isLazy(config, "second"));
+    }
+
+    @Test
+    void entriesAreReadOnFirstAccess() {
+        CommentFileConfiguration config = lazy(DOCUMENT);
+        assertTrue(isLazy(config, "first"));
+        assertTrue(isLazy(config, "second"));
+        assertEquals(eager(DOCUMENT).getComments("second"), config.getComments("second"));
+        assertTrue(isLazy(config, "second"));
+
+        assertEquals("quoted", config.getString("second.deep.value"));
+        assertFalse(isLazy(config, "second"));
+        assertTrue(isLazy(config, "first"));
+        assertFalse(config.isDirty());
+
+        assertTrue(ConfigDiff.compute(eager(DOCUMENT), config).isEmpty());
+        assertNull(config.lazyEntries());
+    }
+
+    @Test
+    void replaceWithSharesUnreadEntries() {
+        CommentFileConfiguration source = lazy(DOCUMENT);
+        CommentFileConfiguration target = new CommentFileConfiguration();
+        target.replaceWith(source);
+
+        assertTrue(isLazy(target, "first"));
+        assertEquals(Arrays.asList("x", "y"), target.getStringList("first.b"));
+        assertTrue(isLazy(source, "first"));
+        assertEquals(DOCUMENT, source.saveToString());
+        assertTrue(target.saveToString().endsWith(DOCUMENT.substring(DOCUMENT.indexOf("# second"))));
+    }
+
+    @Test
+    void documentsWithAnchorsAreLoadedInFull() {
+        CommentFileConfiguration config = lazy("a: &x 1\nb: *x\n");
+        assertNull(config.lazyEntries());
+        assertEquals(1, config.get("b"));
+    }
+
+}
@@ -0,0 +1,72 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListViewTest {
+
+    private static CommentFileConfiguration load() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("a:\n  list:\n  - x\n  - y\n"));
+        return config;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void viewServedByRootFollowsSetOnOwningSection() {
+        CommentFileConfiguration config = load();
+        assertEquals(Arrays.asList("x", "y"), config.getStringList("a.list"));
+
+        List<Object> raw = (List<Object>) config.get("a.list");
+        raw.add("z");
+        config.set("a.list", raw);
+
+        assertEquals(Arrays.asList("x", "y", "z"), config.getStringList("a.list"));
+        assertEquals(Arrays.asList("x", "y", "z"), config.getConfigurationSection("a").getStringList("list"));
+        assertEquals(Arrays.asList("x", "y", "z"), config.getList(ConfigPath.of("a.list"), String.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void viewServedBySectionFollowsSetOnRoot() {
+        CommentFileConfiguration config = load();
+        CommentConfigurationSection section = config.getConfigurationSection("a");
+        assertEquals(Arrays.asList("x", "y"), section.getStringList("list"));
+
+        List<Object> raw = (List<Object>) section.get("list");
+        raw.remove("x");
+        config.set("a.list", raw);
+
+        assertEquals(Arrays.asList("y"), section.getStringList("list"));
+    }
+
+    @Test
+    void viewIsReusedWhileUnmodified() {
+        CommentFileConfiguration config = load();
+        assertSame(config.getStringList("a.list"), config.getStringList("a.list"));
+    }
+
+    @Test
+    void viewsAreReadOnlyAndCopiesCanBeStored() {
+        CommentFileConfiguration config = load();
+        List<String> view = config.getStringList("a.list");
+        assertThrows(UnsupportedOperationException.class, () -> view.add("z"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getStringList("missing").add("z"));
+        assertTrue(config.getStringList("missing").isEmpty());
+
+        List<String> copy = new ArrayList<>(view);
+        copy.add("z");
+        config.set("a.list", copy);
+        assertEquals(Arrays.asList("x", "y", "z"), config.getStringList("a.list"));
+    }
+
+}
@@ -0,0 +1,116 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTest {
+
+    @TempDir
+    File dir;
+
+    private static CommentFileConfiguration defaults() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.set("kept", "default");
+        config.set("section.a", 1);
+        config.set("section.b", 2);
+        config.setComments("kept", Collections.singletonList(" default comment"));
+        return config;
+    }
+
+    @Test
+    void loadMergesOverExistingEntries() {
+        CommentFileConfiguration config = defaults();
+        config.load(new StringReader("# file comment\nsection:\n  a: 5\nadded: true\n"));
+
+        assertEquals("default", config.get("kept"));
+        assertNull(config.getComments("kept"));
+        assertEquals(5, config.get("section.a"));
+        assertNull(config.get("section.b"));
+        assertEquals(true, config.get("added"));
+        assertEquals(Collections.singletonList(" file comment"), config.getComments("section"));
+    }
+
+    @Test
+    void loadOverDefaultsIsNotSyncedWithTheFile() throws IOException {
+        File file = new File(dir, "config.yml");
+        for (boolean lazy : new boolean[]{false, true}) {
+            Files.write(file.toPath(), "section:\n  a: 5\n".getBytes(StandardCharsets.UTF_8));
+            CommentFileConfiguration config = defaults();
+            config.setLazyLoading(lazy);
+            config.load(file);
+            assertEquals("default", config.get("kept"));
+            assertEquals(5, config.get("section.a"));
+            assertTrue(config.isDirty());
+
+            assertTrue(config.saveIfChanged(file));
+            CommentFileConfiguration saved = new CommentFileConfiguration();
+            saved.load(file);
+            assertEquals("default", saved.get("kept"));
+            assertFalse(saved.isDirty());
+        }
+    }
+
+    @Test
+    void binaryCacheHoldsOnlyTheFile() throws IOException {
+        File file = new File(dir, "config.yml");
+        Files.write(file.toPath(), "a: 1\n".getBytes(StandardCharsets.UTF_8));
+
+        CommentFileConfiguration merged = defaults();
+        merged.setBinaryCacheEnabled(true);
+        merged.load(file);
+        assertEquals("default", merged.get("kept"));
+
+        CommentFileConfiguration fresh = new CommentFileConfiguration();
+        fresh.setBinaryCacheEnabled(true);
+        fresh.load(file);
+        fresh.load(file);
+        assertNull(fresh.get("kept"));
+        assertEquals(1, fresh.get("a"));
+    }
+
+    @Test
+    void failedLoadKeepsPreviousContent() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("# comment\na: 1\n"));
+        assertThrows(RuntimeException.class, () -> config.load(new StringReader("b: 2\nc: [\n")));
+
+        assertEquals(1, config.get("a"));
+        assertNull(config.get("b"));
+        assertEquals(Collections.singletonList(" comment"), config.getComments("a"));
+        assertFalse(config.isDirty());
+    }
+
+    @Test
+    void newWithSameSettingsCopiesSettings() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.getLoaderOptions().setCodePointLimit(1234);
+        config.getLoaderOptions().setNestingDepthLimit(7);
+        config.setPathIndexEnabled(true);
+        config.setBinaryCacheEnabled(true);
+        config.setInterning(true);
+        config.setSyncOnSave(true);
+        config.set("a", 1);
+
+        CommentFileConfiguration copy = config.newWithSameSettings();
+        assertTrue(copy.getMap().isEmpty());
+        assertEquals(1234, copy.getLoaderOptions().getCodePointLimit());
+        assertEquals(7, copy.getLoaderOptions().getNestingDepthLimit());
+        assertFalse(copy.isConcurrent());
+        assertTrue(copy.isPathIndexEnabled());
+        assertTrue(copy.isBinaryCacheEnabled());
+        assertTrue(copy.isInterning());
+        assertTrue(copy.isSyncOnSave());
+
+        assertTrue(new CommentFileConfiguration(true).newWithSameSettings().isConcurrent());
+    }
+
+}
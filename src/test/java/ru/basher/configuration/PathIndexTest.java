@@ -0,0 +1,47 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PathIndexTest {
+
+    private static CommentFileConfiguration load(boolean indexed) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("a:\n  b: 2\n"));
+        config.set(ConfigPath.ofSegments("a.b"), 1);
+        config.set(ConfigPath.ofSegments("x.y", "z"), 5);
+        config.setPathIndexEnabled(indexed);
+        return config;
+    }
+
+    @Test
+    void keysWithSeparatorResolveAsWithoutIndex() {
+        for (boolean indexed : new boolean[]{false, true}) {
+            CommentFileConfiguration config = load(indexed);
+            assertEquals(1, config.get(ConfigPath.ofSegments("a.b")));
+            assertEquals(2, config.get("a.b"));
+            assertEquals(2, config.get(ConfigPath.of("a.b")));
+            assertEquals(5, config.get(ConfigPath.ofSegments("x.y", "z")));
+            assertNull(config.get("x.y.z"));
+        }
+    }
+
+    @Test
+    void keysWithSeparatorSetAfterIndexing() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("a:\n  b: 2\n"));
+        config.setPathIndexEnabled(true);
+        config.set(ConfigPath.ofSegments("a.b"), 1);
+        assertEquals(2, config.get("a.b"));
+        assertEquals(1, config.get(ConfigPath.ofSegments("a.b")));
+
+        config.remove(ConfigPath.ofSegments("a.b"));
+        assertEquals(2, config.get("a.b"));
+        assertNull(config.get(ConfigPath.ofSegments("a.b")));
+    }
+
+}
@@ -0,0 +1,76 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceCacheTest {
+
+    private static final byte[] CONTENT = ("# defaults\nsection:\n  value: 1\n  list: [1, 2]\nnames: [x, y]\nother: text\n")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void copiesAreIndependent() {
+        ResourceCache cache = new ResourceCache(8, 1 << 20);
+        CommentFileConfiguration first = cache.load(CONTENT);
+        CommentFileConfiguration second = cache.load(CONTENT.clone());
+        assertEquals(1, cache.size());
+        assertNotSame(first, second);
+
+        first.set("section.value", 2);
+        ((List<Object>) first.get("section.list")).add(3);
+        first.set("names", Arrays.asList("z"));
+        first.remove("other");
+        first.setComments("section", null);
+
+        assertEquals(1, second.getInt("section.value"));
+        assertEquals(Arrays.asList(1, 2), second.getIntegerList("section.list"));
+        assertEquals(Arrays.asList("x", "y"), second.getStringList("names"));
+        assertEquals("text", second.getString("other"));
+        assertNotNull(second.getComments("section"));
+
+        CommentFileConfiguration third = cache.load(CONTENT);
+        assertEquals(new String(CONTENT, StandardCharsets.UTF_8), third.saveToString());
+        assertEquals(1, third.getInt("section.value"));
+        assertFalse(third.isDirty());
+    }
+
+    @Test
+    void resourcesAreLoadedThroughTheCache() throws Exception {
+        ResourceCache cache = new ResourceCache(8, 1 << 20);
+        CommentFileConfiguration config = cache.loadResource(getClass().getClassLoader(), "plan/a.yml");
+        assertNotNull(config);
+        assertEquals(0, config.getInt("value"));
+        assertNull(cache.loadResource(getClass().getClassLoader(), "missing.yml"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedTemplatesAreEvicted() {
+        ResourceCache byCount = new ResourceCache(2, 1 << 20);
+        byte[] a = "a: 1\n".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "b: 1\n".getBytes(StandardCharsets.UTF_8);
+        byte[] c = "c: 1\n".getBytes(StandardCharsets.UTF_8);
+        byCount.load(a);
+        byCount.load(b);
+        byCount.load(a);
+        byCount.load(c);
+        assertEquals(2, byCount.size());
+        assertEquals(1, byCount.load(a).getInt("a"));
+        assertEquals(2, byCount.size());
+
+        ResourceCache byBytes = new ResourceCache(8, 8);
+        byBytes.load(a);
+        byBytes.load(b);
+        assertEquals(1, byBytes.size());
+        assertEquals(1, byBytes.load(b).getInt("b"));
+
+        byBytes.clear();
+        assertEquals(0, byBytes.size());
+    }
+
+}
@@ -0,0 +1,42 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void writesOnlyChangedContent() throws IOException {
+        File file = new File(dir, "config.yml");
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("a: 1\n"));
+
+        assertTrue(config.saveIfChanged(file));
+        assertEquals(config.saveToString(), read(file));
+        assertFalse(config.saveIfChanged(file));
+
+        config.set("a", 1);
+        assertFalse(config.saveIfChanged(file));
+
+        config.set("a", 2);
+        assertTrue(config.saveIfChanged(file));
+        assertEquals(config.saveToString(), read(file));
+        assertFalse(config.isDirty());
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,194 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link Scalars#parse(String)} against SnakeYAML: every plain scalar must load as an equal value
+ * of the same type as SnakeYAML's {@code Resolver} and {@code SafeConstructor} give it, or fail in both.
+ * Random inputs are mostly number-like: ints in every radix with signs, leading zeros and separators, floats,
+ * sexagesimal values, boolean and null words in mixed case, values around the length limit and random text.
+ */
+class ScalarsTest {
+
+    private static final Resolver RESOLVER = new Resolver();
+    private static final Yaml YAML = new Yaml();
+    private static final Object FAILED = new Object() {
+        @Override
+        public String toString() {
+            return "<failed>";
+        }
+    };
+
+    private static final String NUMBER_CHARS = "0123456789+-._:xbeEoOaAfFinIN";
+    private static final String[] WORDS = {"yes", "no", "true", "false", "on", "off", "null", "~", "y", "n", ".inf", ".nan", "nan", "inf"};
+
+    @Test
+    void edgeCasesMatchSnakeYaml() {
+        String[] values = {
+                "0", "-0", "+0", "00", "09", "0_", "0_7", "1__", "1_000", "_1", "0b", "-0b", "0b_1", "0x", "0x_F", "0o7",
+                "2147483647", "2147483648", "-2147483648", "-2147483649", "9223372036854775807", "9223372036854775808",
+                "1:60", "1:5.", "1:2:3", "-1:30", "1:", ".5", ".5e", "5e3", "5.e3", "1.0e+3", "1e-5", "+.inf", "-.Inf", ".NaN",
+                "true", "True", "TRUE", "tRue", "yes", "Off", "y", "null", "~", "", " ", "1 ", "a", "1.2.3", "--1", "+-1"
+        };
+        List<String> mismatches = new ArrayList<>();
+        for (String value : values) compare(value, mismatches);
+        assertEquals(new ArrayList<>(), mismatches);
+    }
+
+    @Test
+    void randomScalarsMatchSnakeYaml() {
+        Random random = new Random(42);
+        List<String> mismatches = new ArrayList<>();
+        for (int i = 0; i < 100_000 && mismatches.size() < 20; i++) {
+            compare(generate(random), mismatches);
+        }
+        assertEquals(new ArrayList<>(), mismatches);
+    }
+
+    private static void compare(String value, List<String> mismatches) {
+        Object expected = expected(value);
+        Object actual = actual(value);
+        if (expected.getClass() != actual.getClass() || !expected.equals(actual)) {
+            mismatches.add("'" + value + "': expected " + describe(expected) + ", got " + describe(actual));
+        }
+    }
+
+    private static Object expected(String value) {
+        Tag tag = RESOLVER.resolve(NodeId.scalar, value, true);
+        if (!Tag.INT.equals(tag) && !Tag.FLOAT.equals(tag) && !Tag.BOOL.equals(tag)) return value;
+        try {
+            return YAML.load("!<" + tag.getValue() + "> '" + value.replace("'", "''") + "'");
+        } catch (RuntimeException e) {
+            return FAILED;
+        }
+    }
+
+    private static Object actual(String value) {
+        try {
+            return Scalars.parse(value);
+        } catch (NumberFormatException e) {
+            return FAILED;
+        }
+    }
+
+    private static String describe(Object value) {
+        return value == FAILED ? value.toString() : value + " (" + value.getClass().getSimpleName() + ")";
+    }
+
+    private static String generate(Random random) {
+        switch (random.nextInt(7)) {
+            case 0:
+                return randomText(random, NUMBER_CHARS, 1 + random.nextInt(12));
+            case 1:
+                return integer(random);
+            case 2:
+                return floating(random);
+            case 3:
+                return sexagesimal(random);
+            case 4:
+                return mixCase(random, WORDS[random.nextInt(WORDS.length)]);
+            case 5:
+                return sign(random) + randomText(random, "0123456789", 1015 + random.nextInt(15));
+            default:
+                StringBuilder ascii = new StringBuilder();
+                for (int i = random.nextInt(9); i > 0; i--) ascii.append((char) (' ' + random.nextInt(95)));
+                return ascii.toString();
+        }
+    }
+
+    private static String integer(Random random) {
+        String prefix;
+        String alphabet;
+        switch (random.nextInt(4)) {
+            case 0:
+                prefix = "0b";
+                alphabet = "01";
+                break;
+            case 1:
+                prefix = "0x";
+                alphabet = "0123456789abcdefABCDEF";
+                break;
+            case 2:
+                prefix = "0";
+                alphabet = "01234567";
+                break;
+            default:
+                prefix = "";
+                alphabet = "0123456789";
+                break;
+        }
+        String digits = randomText(random, alphabet, 1 + random.nextInt(random.nextBoolean() ? 12 : 70));
+        if (prefix.isEmpty() && random.nextInt(4) != 0) digits = digits.replaceFirst("^0+(?=.)", "");
+        return sign(random) + prefix + separators(random, digits);
+    }
+
+    private static String floating(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return sign(random) + Double.toString(Math.abs(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+            case 1:
+                return sign(random) + separators(random, random.nextInt(100000) + "." + randomText(random, "0123456789", random.nextInt(6)));
+            case 2:
+                return sign(random) + (random.nextBoolean() ? "" : String.valueOf(random.nextInt(1000))) + "." + randomText(random, "0123456789_", random.nextInt(5))
+                        + (random.nextBoolean() ? "" : (random.nextBoolean() ? "e" : "E") + sign(random) + random.nextInt(400));
+            default:
+                return sign(random) + random.nextInt(1000) + (random.nextBoolean() ? "e" : "E") + sign(random) + random.nextInt(400);
+        }
+    }
+
+    private static String sexagesimal(Random random) {
+        StringBuilder builder = new StringBuilder(sign(random)).append(1 + random.nextInt(random.nextBoolean() ? 9 : 1_000_000));
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            builder.append(':').append(randomText(random, "0123456789", 1 + random.nextInt(2)));
+        }
+        if (random.nextBoolean()) builder.append('.').append(randomText(random, "0123456789", random.nextInt(4)));
+        return builder.toString();
+    }
+
+    private static String sign(Random random) {
+        int sign = random.nextInt(4);
+        return sign == 0 ? "-" : sign == 1 ? "+" : "";
+    }
+
+    private static String separators(Random random, String digits) {
+        if (random.nextInt(4) != 0) return digits;
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < digits.length(); i++) {
+            if (i > 0 && random.nextInt(4) == 0) builder.append('_');
+            builder.append(digits.charAt(i));
+        }
+        return builder.toString();
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return builder.toString();
+    }
+
+    private static String mixCase(Random random, String word) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return word;
+            case 1:
+                return word.toUpperCase();
+            case 2:
+                return word.isEmpty() ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            default:
+                StringBuilder builder = new StringBuilder();
+                for (char c : word.toCharArray()) builder.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+                return builder.toString();
+        }
+    }
+
+}
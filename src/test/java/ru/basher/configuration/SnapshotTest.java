@@ -0,0 +1,87 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    @TempDir
+    File dir;
+
+    private static CommentFileConfiguration load() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("# top\na:\n  b: 1\n  list: [1, 2]\n  names: [x, y]\n  nested:\n  - [p, q]\n"));
+        return config;
+    }
+
+    @Test
+    void snapshotRejectsMutations() {
+        CommentConfigurationSection snapshot = load().snapshot();
+        CommentConfigurationSection a = snapshot.getConfigurationSection("a");
+        assertNotNull(a);
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.set("a.b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.set("c", 2));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove("a"));
+        assertThrows(UnsupportedOperationException.class, () -> a.set("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.createSection("c"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.setComments("a", Collections.singletonList("x")));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getMap().put("c", 1));
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) snapshot.get("a.list")).add(3));
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) snapshot.get("a.names")).add("z"));
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) ((List<?>) snapshot.get("a.nested")).get(0)).add("r"));
+        assertEquals(1, snapshot.getInt("a.b"));
+    }
+
+    @Test
+    void snapshotIsIsolatedFromTheConfiguration() {
+        CommentFileConfiguration config = load();
+        CommentConfigurationSection snapshot = config.snapshot();
+
+        config.set("a.b", 2);
+        config.remove("a.names");
+        ((List<Object>) config.get("a.list")).add(3);
+        config.setComments("a", Collections.singletonList(" changed"));
+
+        assertEquals(1, snapshot.getInt("a.b"));
+        assertEquals(Arrays.asList("x", "y"), snapshot.getStringList("a.names"));
+        assertEquals(Arrays.asList(1, 2), new ArrayList<>((List<?>) snapshot.get("a.list")));
+        assertEquals(Collections.singletonList(" top"), snapshot.getComments("a"));
+        assertEquals(2, config.snapshot().getInt("a.b"));
+    }
+
+    @Test
+    void holderPublishesReloadedContent() throws IOException {
+        File file = new File(dir, "config.yml");
+        Files.write(file.toPath(), "a: 1\nb: 2\n".getBytes(StandardCharsets.UTF_8));
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(file);
+        SnapshotHolder holder = new SnapshotHolder(config);
+        CommentConfigurationSection first = holder.get();
+
+        config.set("a", 3);
+        assertSame(first, holder.get());
+        assertEquals(3, holder.publish().getInt("a"));
+
+        Files.write(file.toPath(), "a: 4\n".getBytes(StandardCharsets.UTF_8));
+        CommentConfigurationSection reloaded = holder.reload(file);
+        assertSame(reloaded, holder.get());
+        assertEquals(4, reloaded.getInt("a"));
+        assertNull(reloaded.get("b"));
+        assertEquals(1, first.getInt("a"));
+        assertEquals(2, first.getInt("b"));
+    }
+
+}
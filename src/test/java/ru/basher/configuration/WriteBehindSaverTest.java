@@ -0,0 +1,44 @@
+package ru.basher.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindSaverTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void capturesOnTheCaptureExecutor() throws Exception {
+        File file = new File(dir, "config.yml");
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("a: 1\n"));
+
+        BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        WriteBehindSaver saver = new WriteBehindSaver(10, 1, tasks::add);
+        CompletableFuture<Boolean> first = saver.save(file, config);
+        assertSame(first, saver.save(file, config));
+
+        Runnable capture = tasks.poll(10, TimeUnit.SECONDS);
+        assertNotNull(capture);
+        assertFalse(file.exists());
+        config.set("a", 2);
+        capture.run();
+
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertEquals(config.saveToString(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        saver.close();
+    }
+
+}
@@ -0,0 +1,141 @@
+package ru.basher.configuration.binding;
+
+import org.junit.jupiter.api.Test;
+import ru.basher.configuration.CommentConfigurationSection;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BindingTest {
+
+    public interface Settings {
+        int getMaxPlayers();
+
+        boolean isEnabled();
+
+        long getSeed();
+
+        double getRatio();
+
+        @Key("motd.text")
+        String motd();
+
+        List<String> getWorlds();
+    }
+
+    interface Hidden {
+        int getMaxPlayers();
+    }
+
+    public interface WithDefault {
+        default int getMaxPlayers() {
+            return 1;
+        }
+    }
+
+    static class SettingsObject {
+        int maxPlayers;
+        boolean enabled;
+        @Key("motd.text")
+        String motd;
+        List<String> worlds;
+    }
+
+    private static CommentFileConfiguration load() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("max-players: 20\nenabled: true\nseed: 12345678901\nratio: 0.5\n"
+                + "motd:\n  text: hello\nworlds:\n- a\n- b\n"));
+        return config;
+    }
+
+    @Test
+    void interfaceReadsConvertedValues() {
+        CommentFileConfiguration config = load();
+        Settings settings = Binding.bind(config, Settings.class).get();
+
+        assertEquals(20, settings.getMaxPlayers());
+        assertTrue(settings.isEnabled());
+        assertEquals(12345678901L, settings.getSeed());
+        assertEquals(0.5, settings.getRatio());
+        assertEquals("hello", settings.motd());
+        assertEquals(Arrays.asList("a", "b"), settings.getWorlds());
+        assertEquals("Settings@", settings.toString());
+        assertEquals(settings, settings);
+    }
+
+    @Test
+    void interfaceFollowsSetAndRemove() {
+        CommentFileConfiguration config = load();
+        Settings settings = Binding.bind(config, Settings.class).get();
+
+        config.set("max-players", 50);
+        assertEquals(50, settings.getMaxPlayers());
+        config.remove("motd.text");
+        assertNull(settings.motd());
+        config.getConfigurationSection("motd").set("text", "again");
+        assertEquals("again", settings.motd());
+    }
+
+    @Test
+    void missingAndMistypedValuesReadAsDefaults() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("max-players: many\nenabled: 1\nworlds: none\n"));
+        Settings settings = Binding.bind(config, Settings.class).get();
+
+        assertEquals(0, settings.getMaxPlayers());
+        assertFalse(settings.isEnabled());
+        assertEquals(0L, settings.getSeed());
+        assertNull(settings.motd());
+        assertNull(settings.getWorlds());
+    }
+
+    @Test
+    void listsAreReadOnlyCopies() {
+        CommentFileConfiguration config = load();
+        Settings settings = Binding.bind(config, Settings.class).get();
+
+        List<String> worlds = settings.getWorlds();
+        assertThrows(UnsupportedOperationException.class, () -> worlds.add("c"));
+        assertNotSame(config.get("worlds"), worlds);
+    }
+
+    @Test
+    void classFieldsRefreshOnGet() {
+        CommentFileConfiguration config = load();
+        Binding<SettingsObject> binding = Binding.bind(config, SettingsObject.class);
+        SettingsObject settings = binding.get();
+        assertEquals(20, settings.maxPlayers);
+        assertTrue(settings.enabled);
+        assertEquals("hello", settings.motd);
+        assertEquals(Arrays.asList("a", "b"), settings.worlds);
+
+        config.set("max-players", 7);
+        config.remove("enabled");
+        assertTrue(binding.isStale());
+        assertEquals(20, settings.maxPlayers);
+        assertSame(settings, binding.get());
+        assertEquals(7, settings.maxPlayers);
+        assertFalse(settings.enabled);
+    }
+
+    @Test
+    void sectionBinding() {
+        CommentFileConfiguration config = load();
+        CommentConfigurationSection motd = config.getConfigurationSection("motd");
+        Binding<SettingsObject> binding = Binding.bind(motd, SettingsObject.class);
+        assertNull(binding.get().motd);
+        assertEquals(0, binding.get().maxPlayers);
+    }
+
+    @Test
+    void unsupportedInterfaces() {
+        CommentFileConfiguration config = load();
+        assertThrows(IllegalArgumentException.class, () -> Binding.bind(config, Hidden.class));
+        assertThrows(IllegalArgumentException.class, () -> Binding.bind(config, WithDefault.class));
+    }
+
+}
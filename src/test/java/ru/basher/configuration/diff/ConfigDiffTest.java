@@ -0,0 +1,101 @@
+package ru.basher.configuration.diff;
+
+import org.junit.jupiter.api.Test;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigDiffTest {
+
+    private static CommentFileConfiguration load(String content) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader(content));
+        return config;
+    }
+
+    private static DiffEntry entry(ConfigDiff diff, String path) {
+        for (DiffEntry entry : diff.getEntries()) {
+            if (entry.getPath().equals(path)) return entry;
+        }
+        return fail("no entry for " + path + " in " + diff);
+    }
+
+    @Test
+    void equalTreesHaveNoDifference() {
+        String content = "# c\na:\n  b: 1\n  list: [1, 2]\n  names: [x]\n";
+        assertTrue(ConfigDiff.compute(load(content), load(content)).isEmpty());
+    }
+
+    @Test
+    void nestedChangesAreReportedAtTheirPath() {
+        ConfigDiff diff = ConfigDiff.compute(
+                load("a:\n  b:\n    c: 1\n    d: 2\n  e: 3\ngone:\n  x: 1\n"),
+                load("a:\n  b:\n    c: 5\n    f: 6\n  e: 3\nnew:\n  y: 2\n"));
+
+        assertEquals(5, diff.size(), diff.toString());
+        DiffEntry changed = entry(diff, "a.b.c");
+        assertEquals(DiffEntry.Type.CHANGED, changed.getType());
+        assertEquals(1, changed.getOldValue());
+        assertEquals(5, changed.getNewValue());
+        assertEquals(DiffEntry.Type.REMOVED, entry(diff, "a.b.d").getType());
+        assertEquals(DiffEntry.Type.ADDED, entry(diff, "a.b.f").getType());
+        assertEquals(DiffEntry.Type.REMOVED, entry(diff, "gone").getType());
+        assertEquals(DiffEntry.Type.ADDED, entry(diff, "new").getType());
+
+        assertEquals(3, diff.getEntries("a.b").size());
+        assertEquals(3, diff.getEntries("a").size());
+        assertEquals(1, diff.getEntries("gone.x").size());
+        assertTrue(diff.getEntries("a.e").isEmpty());
+    }
+
+    @Test
+    void listChangesReplaceTheWholeList() {
+        ConfigDiff diff = ConfigDiff.compute(
+                load("ints: [1, 2]\nsame: [1, 2]\nnames: [x, y]\nmixed: [1, x]\n"),
+                load("ints: [1, 3]\nsame: [1, 2]\nnames: [x]\nmixed: [1, x]\n"));
+
+        assertEquals(2, diff.size(), diff.toString());
+        DiffEntry ints = entry(diff, "ints");
+        assertEquals(DiffEntry.Type.CHANGED, ints.getType());
+        assertEquals(Arrays.asList(1, 2), ints.getOldValue());
+        assertEquals(Arrays.asList(1, 3), ints.getNewValue());
+        assertEquals(Collections.singletonList("x"), entry(diff, "names").getNewValue());
+    }
+
+    @Test
+    void sectionReplacedByValueIsOneChange() {
+        ConfigDiff diff = ConfigDiff.compute(load("a:\n  b: 1\n"), load("a: 1\n"));
+        assertEquals(1, diff.size());
+        assertEquals(DiffEntry.Type.CHANGED, entry(diff, "a").getType());
+    }
+
+    @Test
+    void commentChangesAreReported() {
+        ConfigDiff diff = ConfigDiff.compute(
+                load("# old\na: 1\nb:\n  # inner\n  c: 2\nd: 3\n"),
+                load("# new\na: 1\nb:\n  c: 2\n# added\nd: 4\n"));
+
+        assertEquals(3, diff.size(), diff.toString());
+        DiffEntry top = entry(diff, "a");
+        assertEquals(DiffEntry.Type.COMMENTS, top.getType());
+        assertEquals(Collections.singletonList(" old"), top.getOldComments());
+        assertEquals(Collections.singletonList(" new"), top.getNewComments());
+        assertTrue(top.isCommentChanged());
+
+        DiffEntry inner = entry(diff, "b.c");
+        assertEquals(DiffEntry.Type.COMMENTS, inner.getType());
+        assertNull(inner.getNewComments());
+
+        DiffEntry changed = entry(diff, "d");
+        assertEquals(DiffEntry.Type.CHANGED, changed.getType());
+        assertTrue(changed.isCommentChanged());
+        List<String> added = changed.getNewComments();
+        assertEquals(Collections.singletonList(" added"), added);
+    }
+
+}
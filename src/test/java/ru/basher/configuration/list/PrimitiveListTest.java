@@ -0,0 +1,55 @@
+package ru.basher.configuration.list;
+
+import org.junit.jupiter.api.Test;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveListTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadedListAcceptsElementsOfOtherTypes() {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("n:\n  - 1\n  - 2\n"));
+
+        List<Object> list = (List<Object>) config.get("n");
+        assertTrue(config.get("n") instanceof IntList);
+        list.add("str");
+        list.set(0, 1.5);
+
+        assertEquals(Arrays.asList(1.5, 2, "str"), list);
+        assertFalse(((IntList) config.get("n")).isPacked());
+        assertArrayEquals(new int[]{1, 2}, config.getIntArray("n"));
+        assertEquals(Arrays.asList("1.5", "2", "str"), config.getStringList("n"));
+    }
+
+    @Test
+    void packedOperations() {
+        IntList list = IntList.wrap(1, 2, 3);
+        list.add(1, 7);
+        list.addInt(4);
+        assertEquals(Integer.valueOf(2), list.remove(2));
+        assertArrayEquals(new int[]{1, 7, 3, 4}, list.toIntArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(4));
+        assertThrows(UnsupportedOperationException.class, () -> IntList.readOnlyCopyOf(list).add(5));
+    }
+
+    @Test
+    void clearRepacks() {
+        LongList list = LongList.wrap(1L, 2L);
+        list.addAll(Arrays.asList(null, 3L));
+        assertFalse(list.isPacked());
+        assertThrows(IllegalStateException.class, list::toLongArray);
+
+        list.clear();
+        list.addLong(5);
+        assertTrue(list.isPacked());
+        assertArrayEquals(new long[]{5}, list.toLongArray());
+    }
+
+}
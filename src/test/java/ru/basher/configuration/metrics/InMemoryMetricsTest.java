@@ -0,0 +1,52 @@
+package ru.basher.configuration.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.File;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryMetricsTest {
+
+    @TempDir
+    File dir;
+
+    @AfterEach
+    void uninstall() {
+        Metrics.install(null);
+    }
+
+    @Test
+    void recordsLoadsSavesAndLookups() {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        Metrics.install(metrics);
+
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader("# comment\na:\n  b: 1\nc: 2\n"));
+        assertEquals(1, metrics.getLoads());
+        assertEquals(3, metrics.getKeys());
+        assertEquals(1, metrics.getSections());
+
+        config.get("a.b");
+        config.get("a.missing");
+        assertEquals(1, metrics.getLookupHits());
+        assertEquals(1, metrics.getLookupMisses());
+        assertEquals(2, metrics.getMaxLookupDepth());
+
+        File file = new File(dir, "config.yml");
+        config.save(file);
+        config.save(file);
+        assertEquals(2, metrics.getSaves());
+        assertEquals(1, metrics.getWrites());
+        assertEquals(file.length(), metrics.getBytesWritten());
+
+        metrics.reset();
+        assertEquals(0, metrics.getLoads());
+        assertEquals(0, metrics.getMaxLookupDepth());
+    }
+
+}
@@ -0,0 +1,154 @@
+package ru.basher.configuration.migration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.basher.configuration.migration.changes.FileChanges;
+import ru.basher.configuration.migration.changes.MigrationChanges;
+import ru.basher.configuration.migration.changes.SectionChanges;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationPlanTest {
+
+    @TempDir
+    File dir;
+
+    private MigrationContext context() throws IOException {
+        File plan = new File(dir, "plan");
+        assertTrue(plan.isDirectory() || plan.mkdir());
+        Files.write(new File(plan, "a.yml").toPath(), "value: 1\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(plan, "b.yml").toPath(), "value: 1\n".getBytes(StandardCharsets.UTF_8));
+        return new MigrationContext(dir);
+    }
+
+    private static SectionChanges section(int version, String file, List<String> log, String name) {
+        SectionChanges changes = new SectionChanges(version, file);
+        changes.setCommonRelocate(false);
+        changes.setChangesTask((from, to) -> log.add(name));
+        return changes;
+    }
+
+    @Test
+    void changesRunByVersionWithinTheRange() throws Exception {
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        List<MigrationChanges> changes = Arrays.asList(
+                section(3, "plan/a.yml", log, "a3"),
+                section(1, "plan/a.yml", log, "a1"),
+                section(2, "plan/a.yml", log, "a2-first"),
+                section(2, "plan/a.yml", log, "a2-second"),
+                section(4, "plan/a.yml", log, "a4"));
+
+        new MigrationPlan(changes, 2, 4).run(context(), Runnable::run);
+        assertEquals(Arrays.asList("a2-first", "a2-second", "a3"), log);
+
+        log.clear();
+        new MigrationPlan(changes, 4, 4).run(context(), Runnable::run);
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    void changesOfTheSameFileRunInOrderAndOthersInParallel() throws Exception {
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch otherFileRan = new CountDownLatch(1);
+        AtomicBoolean overlapped = new AtomicBoolean();
+
+        SectionChanges first = new SectionChanges(1, "plan/a.yml");
+        first.setCommonRelocate(false);
+        first.setChangesTask((from, to) -> {
+            try {
+                overlapped.set(otherFileRan.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            to.set("value", 2);
+            log.add("a1");
+        });
+        SectionChanges second = new SectionChanges(2, "plan/a.yml");
+        second.setCommonRelocate(false);
+        second.setChangesTask((from, to) -> {
+            assertEquals(2, to.getInt("value"));
+            log.add("a2");
+        });
+        SectionChanges other = new SectionChanges(1, "plan/b.yml");
+        other.setCommonRelocate(false);
+        other.setChangesTask((from, to) -> {
+            log.add("b1");
+            otherFileRan.countDown();
+        });
+        FileChanges moved = new FileChanges(2, "plan/b.yml", "plan/a.yml");
+        moved.setCommonRelocate(false);
+        moved.setChangesTask((from, to) -> log.add("b-to-a"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new MigrationPlan(Arrays.asList(first, second, other, moved), 1, 3).run(context(), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(overlapped.get(), "a change of another file waited for an unrelated one");
+        assertEquals(4, log.size());
+        assertTrue(log.indexOf("b1") < log.indexOf("a1"));
+        assertTrue(log.indexOf("a1") < log.indexOf("a2"));
+        assertTrue(log.indexOf("a1") < log.indexOf("b-to-a"));
+        assertTrue(log.indexOf("b1") < log.indexOf("b-to-a"));
+    }
+
+    @Test
+    void unknownChangesWaitForAllEarlierOnesAndBlockLaterOnes() throws Exception {
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        MigrationChanges custom = new MigrationChanges(2) {
+            @Override
+            public void migrate(MigrationContext ctx) {
+                log.add("custom");
+            }
+        };
+        List<MigrationChanges> changes = Arrays.asList(
+                section(1, "plan/a.yml", log, "a1"),
+                section(1, "plan/b.yml", log, "b1"),
+                custom,
+                section(3, "plan/b.yml", log, "b3"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new MigrationPlan(changes, 1, 4).run(context(), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, log.indexOf("custom"));
+        assertEquals("b3", log.get(3));
+    }
+
+    @Test
+    void failureSkipsDependentChanges() throws Exception {
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        SectionChanges failing = new SectionChanges(1, "plan/a.yml");
+        failing.setChangesTask((from, to) -> {
+            throw new IllegalStateException("broken");
+        });
+        List<MigrationChanges> changes = Arrays.asList(
+                failing,
+                section(2, "plan/a.yml", log, "a2"),
+                section(2, "plan/b.yml", log, "b2"));
+
+        MigrationContext ctx = context();
+        Exception error = assertThrows(Exception.class, () -> new MigrationPlan(changes, 1, 3).run(ctx, Runnable::run));
+        assertEquals("broken", error.getMessage());
+        assertEquals(Collections.singletonList("b2"), log);
+    }
+
+}
@@ -0,0 +1,66 @@
+package ru.basher.configuration.migration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationStateTest {
+
+    @TempDir
+    File dir;
+
+    private File write(String content) throws IOException {
+        File file = new File(dir, "config.yml");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void rememberedVersionIsKeptWhileTheContentIsUnchanged() throws IOException {
+        File file = write("version: 2\n");
+        assertFalse(MigrationState.isAt(file, 2));
+
+        MigrationState.remember(file, 2);
+        assertTrue(MigrationState.stateFile(file).isFile());
+        assertTrue(MigrationState.isAt(file, 2));
+        assertFalse(MigrationState.isAt(file, 3));
+
+        write("version: 2\n");
+        assertTrue(MigrationState.isAt(file, 2));
+    }
+
+    @Test
+    void sameSizeEditWithTheSameModificationTimeIsNoticed() throws IOException {
+        File file = write("version: 2\n");
+        MigrationState.remember(file, 2);
+        long lastModified = file.lastModified();
+
+        write("version: 1\n");
+        assertTrue(file.setLastModified(lastModified));
+        assertFalse(MigrationState.isAt(file, 2));
+    }
+
+    @Test
+    void damagedStateFileIsIgnored() throws IOException {
+        File file = write("version: 2\n");
+        MigrationState.remember(file, 2);
+        File state = MigrationState.stateFile(file);
+
+        try (RandomAccessFile out = new RandomAccessFile(state, "rw")) {
+            out.seek(10);
+            out.write(out.read() ^ 1);
+        }
+        assertFalse(MigrationState.isAt(file, 2));
+
+        Files.write(state.toPath(), new byte[]{1, 2, 3});
+        assertFalse(MigrationState.isAt(file, 2));
+    }
+
+}
@@ -0,0 +1,60 @@
+package ru.basher.configuration.migration;
+
+import org.junit.jupiter.api.Test;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionProbeTest {
+
+    private static Integer probe(String document, String path) {
+        return VersionProbe.probe(new StringReader(document), path, 1);
+    }
+
+    private static int load(String document, String path) {
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(new StringReader(document));
+        return config.getInt(path, 1);
+    }
+
+    @Test
+    void probeMatchesTheFullLoad() {
+        String[] documents = {
+                "version: 3\n",
+                "a: [1, 2]\nversion: 4\nb: {c: 1}\n",
+                "settings:\n  other: x\n  version: 5\n",
+                "version: text\n",
+                "version: [1]\nother: 2\n",
+                "other: 2\n",
+                "",
+        };
+        for (String document : documents) {
+            String path = document.startsWith("settings") ? "settings.version" : "version";
+            assertEquals(load(document, path), probe(document, path), document);
+        }
+    }
+
+    @Test
+    void repeatedKeyNeedsFullLoad() {
+        assertNull(probe("version: 1\nother: 2\nversion: 2\n", "version"));
+        assertNull(probe("settings:\n  version: 1\nsettings:\n  other: 2\n", "settings.version"));
+        assertNull(probe("settings:\n  version: 1\n  version: 2\n", "settings.version"));
+        assertEquals(2, probe("other: 1\nother: 3\nversion: 2\n", "version"));
+    }
+
+    @Test
+    void aliasesAndMergesNeedFullLoad() {
+        assertNull(probe("base: &b 2\nversion: *b\n", "version"));
+        assertNull(probe("base: &b {version: 2}\nsettings: *b\n", "settings.version"));
+        assertNull(probe("base: &b {version: 2}\nsettings:\n  <<: *b\n", "settings.version"));
+    }
+
+    @Test
+    void malformedDocumentNeedsFullLoad() {
+        assertNull(probe("version: 1\nbroken: [\n", "version"));
+        assertNull(probe("- 1\n- 2\n", "version"));
+    }
+
+}
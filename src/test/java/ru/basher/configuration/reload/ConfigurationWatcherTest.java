@@ -0,0 +1,93 @@
+package ru.basher.configuration.reload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.basher.configuration.CommentFileConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationWatcherTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void reloadIsAppliedOnTheApplyExecutor() throws Exception {
+        File file = write(new File(dir, "config.yml"), "a: 1\n");
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(file);
+
+        BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        try (ConfigurationWatcher watcher = new ConfigurationWatcher(10, tasks::add)) {
+            watcher.watch(file, config);
+            write(file, "a: 2\n");
+
+            Runnable apply = tasks.poll(10, TimeUnit.SECONDS);
+            assertNotNull(apply);
+            assertEquals(1, config.get("a"));
+            apply.run();
+            assertEquals(2, config.get("a"));
+        }
+    }
+
+    @Test
+    void reloadUsesTheSettingsOfTheWatchedConfiguration() throws Exception {
+        File file = write(new File(dir, "config.yml"), "a: 1\n");
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.getLoaderOptions().setNestingDepthLimit(2);
+        config.load(file);
+
+        BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        BlockingQueue<Throwable> errors = new LinkedBlockingQueue<>();
+        try (ConfigurationWatcher watcher = new ConfigurationWatcher(10, tasks::add)) {
+            watcher.setErrorHandler(errors::add);
+            watcher.watch(file, config);
+            write(file, "a:\n  b:\n    c: 2\n");
+
+            assertNotNull(errors.poll(10, TimeUnit.SECONDS));
+            assertNull(tasks.poll(100, TimeUnit.MILLISECONDS));
+            assertEquals(1, config.get("a"));
+
+            write(file, "a: 4\n");
+            Runnable apply = tasks.poll(10, TimeUnit.SECONDS);
+            assertNotNull(apply);
+            apply.run();
+            assertEquals(4, config.get("a"));
+        }
+    }
+
+    @Test
+    void deletedDirectoryIsReported() throws Exception {
+        File directory = new File(dir, "sub");
+        assertTrue(directory.mkdir());
+        File file = write(new File(directory, "config.yml"), "a: 1\n");
+        CommentFileConfiguration config = new CommentFileConfiguration();
+        config.load(file);
+
+        BlockingQueue<Throwable> errors = new LinkedBlockingQueue<>();
+        try (ConfigurationWatcher watcher = new ConfigurationWatcher(10, Runnable::run)) {
+            watcher.setErrorHandler(errors::add);
+            WatchedConfiguration watched = watcher.watch(file, config);
+            assertTrue(file.delete());
+            assertTrue(directory.delete());
+
+            Throwable error = errors.poll(10, TimeUnit.SECONDS);
+            assertTrue(error instanceof IOException, String.valueOf(error));
+            watched.schedule(0);
+        }
+    }
+
+    private static File write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}